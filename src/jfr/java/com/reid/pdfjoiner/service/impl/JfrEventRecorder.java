@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import com.reid.pdfjoiner.service.EventRecorder;
+import com.reid.pdfjoiner.service.PDFManager;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Records the stages of a merge as JDK Flight Recorder events, which cost
+ * almost nothing unless a recording is running. The events' default
+ * thresholds are those of the bundled pdfjoiner.jfc, so a recording started
+ * with the JDK's own settings, eg -XX:StartFlightRecording, picks them up as
+ * they are. Setting pdfjoiner.jfr.dir starts a continuous recording from
+ * inside the application instead: the JDK's default settings plus
+ * pdfjoiner.jfc, kept on disk for the last day, dumped to a file in that
+ * directory when the JVM exits, or at any time with
+ * "jcmd &lt;pid&gt; JFR.dump name=PDFJoiner".
+ *
+ * @author pmreid
+ */
+public class JfrEventRecorder implements EventRecorder {
+
+    private static final Logger LOGGER = Logger.getLogger(JfrEventRecorder.class.getName());
+    private static final String SETTINGS = "pdfjoiner.jfc";
+    private static final Duration MAX_AGE = Duration.ofHours(24);
+    private static final long MAX_SIZE = 256L * 1024 * 1024;
+    private static final String[] TYPE_NAMES = {"PDF", "PPTX", "PPT", "DOCX", "DOC", "ODP", "ODT"};
+
+    public JfrEventRecorder() {
+        String dir = System.getProperty("pdfjoiner.jfr.dir");
+        if (dir != null) {
+            startRecording(new File(dir));
+        }
+    }
+
+    @Override
+    public Stage begin(int stage) {
+        StageEvent event;
+        switch (stage) {
+            case STAGE_DETECTION:
+                event = new DetectionEvent();
+                break;
+            case STAGE_CONVERSION:
+                event = new ConversionEvent();
+                break;
+            case STAGE_PAGE_IMPORT:
+                event = new PageImportEvent();
+                break;
+            case STAGE_OUTPUT_WRITE:
+                event = new OutputWriteEvent();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown stage " + stage);
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Starts an always-on recording that keeps the last day's events on disk
+     *
+     * @param dir directory to dump the recording to on exit
+     */
+    private static void startRecording(File dir) {
+        try {
+            Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+            try (InputStream in = JfrEventRecorder.class.getResourceAsStream(SETTINGS)) {
+                if (in == null) {
+                    throw new IOException(SETTINGS + " is missing from the class path");
+                }
+                Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+                settings.putAll(Configuration.create(reader).getSettings());
+            }
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Cannot create " + dir);
+            }
+            String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+            Recording recording = new Recording(settings);
+            recording.setName("PDFJoiner");
+            recording.setToDisk(true);
+            recording.setMaxAge(MAX_AGE);
+            recording.setMaxSize(MAX_SIZE);
+            recording.setDumpOnExit(true);
+            recording.setDestination(new File(dir, "PDFJoiner-" + stamp + ".jfr").toPath());
+            recording.start();
+            LOGGER.log(Level.INFO, "Flight Recorder recording started; it will be written to {0} on exit", dir);
+        } catch (IOException | ParseException | RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Could not start the Flight Recorder recording", ex);
+        }
+    }
+
+    /**
+     * Fields and setters every stage has. Setters for fields a stage doesn't
+     * have do nothing.
+     */
+    @Category("PDF Joiner")
+    @StackTrace(false)
+    abstract static class StageEvent extends Event implements Stage {
+
+        @Label("Source")
+        @Description("Path or name of the source or output file")
+        String source;
+
+        @Label("Size")
+        @Description("Size of the source, or of the output written")
+        @DataAmount
+        long byteSize;
+
+        @Label("Success")
+        boolean success;
+
+        @Override
+        public void setSource(String source) {
+            this.source = source;
+        }
+
+        @Override
+        public void setByteSize(long bytes) {
+            this.byteSize = bytes;
+        }
+
+        @Override
+        public void setPageCount(int pages) {
+        }
+
+        @Override
+        public void setDocumentType(int fileType) {
+        }
+
+        @Override
+        public void setBackend(String backend) {
+        }
+
+        @Override
+        public void setCacheHit(boolean cacheHit) {
+        }
+
+        @Override
+        public void setSuccess(boolean success) {
+            this.success = success;
+        }
+
+        @Override
+        public void record() {
+            end();
+            if (shouldCommit()) {
+                commit();
+            }
+        }
+    }
+
+    @Name("com.reid.pdfjoiner.Detection")
+    @Label("Source Detection")
+    @Description("Working out the type, page count and validity of a source")
+    @Threshold("10 ms")
+    static class DetectionEvent extends StageEvent {
+
+        @Label("Document Type")
+        String documentType;
+
+        @Label("Pages")
+        int pageCount;
+
+        @Label("Cache Hit")
+        boolean cacheHit;
+
+        @Override
+        public void setDocumentType(int fileType) {
+            documentType = typeName(fileType);
+        }
+
+        @Override
+        public void setPageCount(int pages) {
+            pageCount = pages;
+        }
+
+        @Override
+        public void setCacheHit(boolean cacheHit) {
+            this.cacheHit = cacheHit;
+        }
+    }
+
+    @Name("com.reid.pdfjoiner.Conversion")
+    @Label("Conversion")
+    @Description("Converting a document to PDF, or taking over a conversion done earlier")
+    @Threshold("0 ms")
+    static class ConversionEvent extends StageEvent {
+
+        @Label("Document Type")
+        String documentType;
+
+        @Label("Backend")
+        String backend;
+
+        @Label("Cache Hit")
+        @Description("Converted in the background or by an earlier attempt at the job")
+        boolean cacheHit;
+
+        @Override
+        public void setDocumentType(int fileType) {
+            documentType = typeName(fileType);
+        }
+
+        @Override
+        public void setBackend(String backend) {
+            this.backend = backend;
+        }
+
+        @Override
+        public void setCacheHit(boolean cacheHit) {
+            this.cacheHit = cacheHit;
+        }
+    }
+
+    @Name("com.reid.pdfjoiner.PageImport")
+    @Label("Page Import")
+    @Description("Parsing a source and importing its pages into the output")
+    @Threshold("1 ms")
+    static class PageImportEvent extends StageEvent {
+
+        @Label("Pages")
+        int pageCount;
+
+        @Override
+        public void setPageCount(int pages) {
+            pageCount = pages;
+        }
+    }
+
+    @Name("com.reid.pdfjoiner.OutputWrite")
+    @Label("Output Write")
+    @Description("Saving one output file, or restoring it from the job cache")
+    @Threshold("0 ms")
+    static class OutputWriteEvent extends StageEvent {
+
+        @Label("Pages")
+        int pageCount;
+
+        @Label("Cache Hit")
+        @Description("Restored from the job cache rather than merged")
+        boolean cacheHit;
+
+        @Override
+        public void setPageCount(int pages) {
+            pageCount = pages;
+        }
+
+        @Override
+        public void setCacheHit(boolean cacheHit) {
+            this.cacheHit = cacheHit;
+        }
+    }
+
+    private static String typeName(int fileType) {
+        return fileType >= PDFManager.TYPE_PDF && fileType < TYPE_NAMES.length ? TYPE_NAMES[fileType] : "unknown";
+    }
+}
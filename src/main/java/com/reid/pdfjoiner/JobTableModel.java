@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner;
+
+import com.reid.pdfjoiner.primitive.MergeJob;
+import com.reid.pdfjoiner.primitive.MergeReport;
+import com.reid.pdfjoiner.service.JobQueue;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * A table model showing the merge jobs of the session and their status. It
+ * works from a snapshot of the queue, taken again on the Swing event dispatch
+ * thread whenever the queue changes.
+ *
+ * @author pmreid
+ */
+public class JobTableModel extends AbstractTableModel {
+
+    public static final int COL_ID = 0;
+    public static final int COL_OUTPUT = 1;
+    public static final int COL_SOURCES = 2;
+    public static final int COL_STATUS = 3;
+    public static final int COL_TIME = 4;
+    private static final String[] COLUMNS = {"Job", "Output file", "Sources", "Status", "Time"};
+
+    private final JobQueue queue;
+    private List<MergeJob> jobs = new ArrayList<>();
+
+    public JobTableModel(JobQueue queue) {
+        this.queue = queue;
+        queue.addChangeListener(new Runnable() {
+            @Override
+            public void run() {
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        refresh();
+                    }
+                });
+            }
+        });
+    }
+
+    @Override
+    public int getRowCount() {
+        return jobs.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        MergeJob job = jobs.get(rowIndex);
+        switch (columnIndex) {
+            case COL_ID:
+                return job.getId();
+            case COL_OUTPUT:
+                return job.getDestination().getPath();
+            case COL_SOURCES:
+                return job.getSources().size();
+            case COL_STATUS:
+                return describeStatus(job);
+            case COL_TIME:
+                return describeTime(job);
+            default:
+                return "";
+        }
+    }
+
+    public MergeJob getJobAt(int rowIndex) {
+        return jobs.get(rowIndex);
+    }
+
+    /**
+     * Takes a fresh snapshot of the queue. Jobs are only ever added at the
+     * end, so unless some have been cleared the existing rows are updated in
+     * place and the selection is kept.
+     */
+    public void refresh() {
+        List<MergeJob> latest = queue.getJobs();
+        int previous = jobs.size();
+        boolean appended = latest.size() >= previous && (previous == 0 || latest.get(previous - 1) == jobs.get(previous - 1));
+        jobs = latest;
+        if (!appended) {
+            fireTableDataChanged();
+            return;
+        }
+        if (previous > 0) {
+            fireTableRowsUpdated(0, previous - 1);
+        }
+        if (latest.size() > previous) {
+            fireTableRowsInserted(previous, latest.size() - 1);
+        }
+    }
+
+    /**
+     * Simple helper method to turn the job status into table text
+     *
+     * @param job populated MergeJob DTO
+     * @return text to display
+     */
+    private static String describeStatus(MergeJob job) {
+        MergeReport report = job.getReport();
+        switch (job.getStatus()) {
+            case MergeJob.STATUS_QUEUED:
+                return "Queued";
+            case MergeJob.STATUS_RUNNING:
+                return "Running";
+            case MergeJob.STATUS_DONE:
+                if (report != null && !report.getRejectedSources().isEmpty()) {
+                    return "Done, " + report.getRejectedSources().size() + " source(s) rejected";
+                }
+                return "Done";
+            case MergeJob.STATUS_FAILED:
+                return "Failed";
+            case MergeJob.STATUS_CANCELLED:
+                return "Cancelled";
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * Simple helper method to give how long a job has run for
+     *
+     * @param job populated MergeJob DTO
+     * @return elapsed time in seconds, or blank if the job hasn't started
+     */
+    private static String describeTime(MergeJob job) {
+        if (job.getStartedMillis() == 0) {
+            return "";
+        }
+        long end = job.getFinishedMillis() == 0 ? System.currentTimeMillis() : job.getFinishedMillis();
+        return String.format("%.1f s", (end - job.getStartedMillis()) / 1000.0);
+    }
+}
@@ -16,12 +16,18 @@
  */
 package com.reid.pdfjoiner;
 
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import com.reid.pdfjoiner.primitive.MergeJob;
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableModel;
+import javax.swing.Timer;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.table.TableColumn;
 
 /**
  *
@@ -32,6 +38,11 @@ import javax.swing.table.TableModel;
 public class MainWindow extends javax.swing.JFrame {
 
     private static final java.util.logging.Logger logger = java.util.logging.Logger.getLogger(MainWindow.class.getName());
+    private static final int PREVIEW_WIDTH = 60;
+    private static final int JOB_NARROW_COLUMN_WIDTH = 70;
+    private static final int JOB_REFRESH_MILLIS = 1000;
+    private JobTableModel jobModel;
+    private Timer jobTimer;
 
     /**
      * Creates new form MainWindow
@@ -39,28 +50,68 @@ public class MainWindow extends javax.swing.JFrame {
     public MainWindow() {
         initComponents();
         initialiseSourceTable();
+        initialiseJobTable();
     }
 
     /**
      * Simple helper method to set up the table of source files
      */
     private void initialiseSourceTable() {
-        List<String> columns = new ArrayList<>(Arrays.asList("Source file name", "Full path"));
-        String[][] rows = new String[1][];
+        PDFJoiner.sourceModel = new SourceTableModel(PDFJoiner.sourceFiles, PDFJoiner.indexer);
+        this.jTableSourceFiles.setModel(PDFJoiner.sourceModel);
+        TableColumn previewColumn = this.jTableSourceFiles.getColumnModel().getColumn(SourceTableModel.COL_PREVIEW);
+        previewColumn.setCellRenderer(new PreviewCellRenderer(PDFJoiner.previewer));
+        previewColumn.setMinWidth(PREVIEW_WIDTH);
+        previewColumn.setMaxWidth(PREVIEW_WIDTH);
+        // stop rendering previews of rows that have been scrolled out of view:
+        this.jScrollPaneSourceTable.getViewport().addChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                PDFJoiner.previewer.retainOnly(getVisibleSources());
+            }
+        });
+    }
 
-        TableModel tableModel = new DefaultTableModel(rows, columns.toArray());
-        this.jTableSourceFiles.setModel(tableModel);
+    /**
+     * Simple helper method to set up the table of merge jobs
+     */
+    private void initialiseJobTable() {
+        this.jobModel = new JobTableModel(PDFJoiner.jobQueue);
+        this.jTableJobs.setModel(this.jobModel);
+        this.jTableJobs.getColumnModel().getColumn(JobTableModel.COL_ID).setMaxWidth(JOB_NARROW_COLUMN_WIDTH);
+        this.jTableJobs.getColumnModel().getColumn(JobTableModel.COL_SOURCES).setMaxWidth(JOB_NARROW_COLUMN_WIDTH);
+        // keep the running time of jobs ticking over:
+        this.jobTimer = new Timer(JOB_REFRESH_MILLIS, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (PDFJoiner.jobQueue.hasActiveJobs()) {
+                    jobModel.refresh();
+                }
+            }
+        });
+        this.jobTimer.start();
     }
 
     /**
-     * Re-reads the List of source files and re-populates the JTable
+     * Works out which source files are currently scrolled into view
+     *
+     * @return List of visible source files
      */
-    private void repaintSourceList() {
-        DefaultTableModel model = (DefaultTableModel) this.jTableSourceFiles.getModel();
-        model.setRowCount(0);
-        for (File f : PDFJoiner.sourceFiles) {
-            model.addRow(new Object[]{f.getName(), f.getAbsolutePath()});
+    private List<File> getVisibleSources() {
+        List<File> visible = new ArrayList<>();
+        Rectangle view = this.jTableSourceFiles.getVisibleRect();
+        int first = this.jTableSourceFiles.rowAtPoint(view.getLocation());
+        int last = this.jTableSourceFiles.rowAtPoint(new Point(view.x, view.y + view.height - 1));
+        if (first < 0) {
+            return visible;
         }
+        if (last < 0) {
+            last = PDFJoiner.sourceModel.getRowCount() - 1;
+        }
+        for (int row = first; row <= last; row++) {
+            visible.add(PDFJoiner.sourceModel.getSourceAt(row));
+        }
+        return visible;
     }
 
     /**
@@ -76,14 +127,36 @@ public class MainWindow extends javax.swing.JFrame {
         return status;
     }
 
-    private int getSelectedRow() {
-        int row = -1;
+    private int[] getSelectedRows() {
+        int[] rows = new int[0];
         try {
-            row = this.jTableSourceFiles.getSelectedRow();
+            rows = this.jTableSourceFiles.getSelectedRows();
         } catch (IndexOutOfBoundsException e) {
             // do nothing
         }
-        return row;
+        return rows;
+    }
+
+    private List<MergeJob> getSelectedJobs() {
+        List<MergeJob> selected = new ArrayList<>();
+        for (int row : this.jTableJobs.getSelectedRows()) {
+            selected.add(this.jobModel.getJobAt(row));
+        }
+        return selected;
+    }
+
+    /**
+     * Re-selects rows after they have been moved, so that repeated clicks keep
+     * moving the same files
+     *
+     * @param rows indices of the rows before they were moved
+     * @param offset number of places the rows moved
+     */
+    private void reselectRows(int[] rows, int offset) {
+        this.jTableSourceFiles.clearSelection();
+        for (int row : rows) {
+            this.jTableSourceFiles.addRowSelectionInterval(row + offset, row + offset);
+        }
     }
 
     /**
@@ -105,10 +178,22 @@ public class MainWindow extends javax.swing.JFrame {
         jButtonMoveDown = new javax.swing.JButton();
         jButtonRemove = new javax.swing.JButton();
         jButtonAddSourceFiles = new javax.swing.JButton();
+        jButtonAddFolder = new javax.swing.JButton();
         jButtonJoinPDFs = new javax.swing.JButton();
-
-        setDefaultCloseOperation(javax.swing.WindowConstants.EXIT_ON_CLOSE);
+        jLabelJobs = new javax.swing.JLabel();
+        jScrollPaneJobs = new javax.swing.JScrollPane();
+        jTableJobs = new javax.swing.JTable();
+        jButtonCancelJob = new javax.swing.JButton();
+        jButtonViewJob = new javax.swing.JButton();
+        jButtonClearJobs = new javax.swing.JButton();
+
+        setDefaultCloseOperation(javax.swing.WindowConstants.DO_NOTHING_ON_CLOSE);
         setTitle("PDFJoiner");
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            public void windowClosing(java.awt.event.WindowEvent evt) {
+                formWindowClosing(evt);
+            }
+        });
 
         jLabelOutputPDF.setLabelFor(jTextFieldOutputPDF);
         jLabelOutputPDF.setText("Output PDF:");
@@ -144,7 +229,7 @@ public class MainWindow extends javax.swing.JFrame {
         ));
         jTableSourceFiles.setIntercellSpacing(new java.awt.Dimension(3, 3));
         jTableSourceFiles.setRowHeight(60);
-        jTableSourceFiles.setSelectionMode(javax.swing.ListSelectionModel.SINGLE_SELECTION);
+        jTableSourceFiles.setSelectionMode(javax.swing.ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         jTableSourceFiles.setShowGrid(true);
         jScrollPaneSourceTable.setViewportView(jTableSourceFiles);
 
@@ -184,9 +269,18 @@ public class MainWindow extends javax.swing.JFrame {
             }
         });
 
+        jButtonAddFolder.setIcon(new javax.swing.ImageIcon(getClass().getResource("/com/reid/pdfjoiner/icons/icon_folders.png"))); // NOI18N
+        jButtonAddFolder.setText("Add Folder...");
+        jButtonAddFolder.setToolTipText("Adds every supported file in a folder and its sub-folders, in natural name order.");
+        jButtonAddFolder.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jButtonAddFolderActionPerformed(evt);
+            }
+        });
+
         jButtonJoinPDFs.setIcon(new javax.swing.ImageIcon(getClass().getResource("/com/reid/pdfjoiner/icons/icon_save.png"))); // NOI18N
         jButtonJoinPDFs.setText("Join PDFs!");
-        jButtonJoinPDFs.setToolTipText("Executes the 'join' cycle and merges the source files in the list, in order, to make the output file.");
+        jButtonJoinPDFs.setToolTipText("Queues a job that merges the source files in the list, in order, to make the output file; it runs in the background while the next job is set up.");
         jButtonJoinPDFs.setDoubleBuffered(true);
         jButtonJoinPDFs.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -194,6 +288,51 @@ public class MainWindow extends javax.swing.JFrame {
             }
         });
 
+        jLabelJobs.setText("Merge jobs:");
+
+        jScrollPaneJobs.setHorizontalScrollBarPolicy(javax.swing.ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
+
+        jTableJobs.setModel(new javax.swing.table.DefaultTableModel(
+            new Object [][] {
+                {null, null, null, null},
+                {null, null, null, null},
+                {null, null, null, null},
+                {null, null, null, null}
+            },
+            new String [] {
+                "Title 1", "Title 2", "Title 3", "Title 4"
+            }
+        ));
+        jTableJobs.setSelectionMode(javax.swing.ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        jTableJobs.setShowGrid(true);
+        jScrollPaneJobs.setViewportView(jTableJobs);
+
+        jButtonCancelJob.setIcon(new javax.swing.ImageIcon(getClass().getResource("/com/reid/pdfjoiner/icons/icon_remove.png"))); // NOI18N
+        jButtonCancelJob.setText("Cancel Job");
+        jButtonCancelJob.setToolTipText("Cancels the selected merge jobs, if they are still queued or running.");
+        jButtonCancelJob.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jButtonCancelJobActionPerformed(evt);
+            }
+        });
+
+        jButtonViewJob.setIcon(new javax.swing.ImageIcon(getClass().getResource("/com/reid/pdfjoiner/icons/icon_open.png"))); // NOI18N
+        jButtonViewJob.setText("View PDF");
+        jButtonViewJob.setToolTipText("Opens the merged PDF of the selected job.");
+        jButtonViewJob.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jButtonViewJobActionPerformed(evt);
+            }
+        });
+
+        jButtonClearJobs.setText("Clear Finished");
+        jButtonClearJobs.setToolTipText("Removes the jobs that have finished, failed or been cancelled from the list.");
+        jButtonClearJobs.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jButtonClearJobsActionPerformed(evt);
+            }
+        });
+
         javax.swing.GroupLayout layout = new javax.swing.GroupLayout(getContentPane());
         getContentPane().setLayout(layout);
         layout.setHorizontalGroup(
@@ -210,13 +349,19 @@ public class MainWindow extends javax.swing.JFrame {
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                         .addComponent(jButtonJoinPDFs, javax.swing.GroupLayout.PREFERRED_SIZE, 250, javax.swing.GroupLayout.PREFERRED_SIZE))
                     .addComponent(jTextFieldOutputPDF)
-                    .addComponent(jScrollPaneSourceTable, javax.swing.GroupLayout.DEFAULT_SIZE, 1097, Short.MAX_VALUE))
+                    .addComponent(jScrollPaneSourceTable, javax.swing.GroupLayout.DEFAULT_SIZE, 1097, Short.MAX_VALUE)
+                    .addComponent(jLabelJobs, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addComponent(jScrollPaneJobs))
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
                 .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING, false)
                     .addComponent(jButtonChooseOutputPDF, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                     .addComponent(jButtonMoveUp, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                     .addComponent(jButtonRemove, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
-                    .addComponent(jButtonMoveDown, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+                    .addComponent(jButtonMoveDown, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addComponent(jButtonAddFolder, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addComponent(jButtonCancelJob, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addComponent(jButtonViewJob, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addComponent(jButtonClearJobs, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
                 .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
         );
         layout.setVerticalGroup(
@@ -238,11 +383,24 @@ public class MainWindow extends javax.swing.JFrame {
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
                         .addComponent(jButtonRemove, javax.swing.GroupLayout.PREFERRED_SIZE, 47, javax.swing.GroupLayout.PREFERRED_SIZE)
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
-                        .addComponent(jButtonMoveDown, javax.swing.GroupLayout.PREFERRED_SIZE, 47, javax.swing.GroupLayout.PREFERRED_SIZE)))
+                        .addComponent(jButtonMoveDown, javax.swing.GroupLayout.PREFERRED_SIZE, 47, javax.swing.GroupLayout.PREFERRED_SIZE)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
+                        .addComponent(jButtonAddFolder, javax.swing.GroupLayout.PREFERRED_SIZE, 47, javax.swing.GroupLayout.PREFERRED_SIZE)))
                 .addGap(18, 18, 18)
                 .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
                     .addComponent(jButtonJoinPDFs, javax.swing.GroupLayout.PREFERRED_SIZE, 47, javax.swing.GroupLayout.PREFERRED_SIZE)
                     .addComponent(jButtonAddSourceFiles, javax.swing.GroupLayout.PREFERRED_SIZE, 47, javax.swing.GroupLayout.PREFERRED_SIZE))
+                .addGap(18, 18, 18)
+                .addComponent(jLabelJobs)
+                .addGap(9, 9, 9)
+                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+                    .addComponent(jScrollPaneJobs, javax.swing.GroupLayout.PREFERRED_SIZE, 165, javax.swing.GroupLayout.PREFERRED_SIZE)
+                    .addGroup(layout.createSequentialGroup()
+                        .addComponent(jButtonCancelJob, javax.swing.GroupLayout.PREFERRED_SIZE, 47, javax.swing.GroupLayout.PREFERRED_SIZE)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
+                        .addComponent(jButtonViewJob, javax.swing.GroupLayout.PREFERRED_SIZE, 47, javax.swing.GroupLayout.PREFERRED_SIZE)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
+                        .addComponent(jButtonClearJobs, javax.swing.GroupLayout.PREFERRED_SIZE, 47, javax.swing.GroupLayout.PREFERRED_SIZE)))
                 .addGap(19, 19, 19))
         );
 
@@ -250,12 +408,9 @@ public class MainWindow extends javax.swing.JFrame {
     }// </editor-fold>//GEN-END:initComponents
 
     private void jButtonRemoveActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButtonRemoveActionPerformed
-        int row = getSelectedRow();
-        if (row > -1) {
-            String path = this.jTableSourceFiles.getModel().getValueAt(row, 1).toString();
-            File selectedFile = new File(path);
-            PDFJoiner.removeFileFromSources(selectedFile);
-            repaintSourceList();
+        int[] rows = getSelectedRows();
+        if (rows.length > 0) {
+            PDFJoiner.removeSourceFiles(rows);
         }
     }//GEN-LAST:event_jButtonRemoveActionPerformed
 
@@ -267,44 +422,26 @@ public class MainWindow extends javax.swing.JFrame {
     }//GEN-LAST:event_jButtonChooseOutputPDFActionPerformed
 
     private void jButtonAddSourceFilesActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButtonAddSourceFilesActionPerformed
-        boolean outcomeSuccessful = PDFJoiner.selectSourceFiles();
-        if (outcomeSuccessful) {
-            repaintSourceList();
-        }
+        PDFJoiner.selectSourceFiles();
     }//GEN-LAST:event_jButtonAddSourceFilesActionPerformed
 
     private void jButtonJoinPDFsActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButtonJoinPDFsActionPerformed
         if (readyToMerge()) {
-            PDFJoiner.processingFrame.setVisible(true);
-            Thread joinerThread = new Thread(new Runnable() {
-                public void run() {
-
-                    if (PDFJoiner.executeJoin()) {
-                        // success
-                        if (PDFJoiner.outputYesNoQuestionToUser("The merged PDF was successfully created. Would you like to view the new PDF file?", "Success. View new PDF?")) {
-                            PDFJoiner.pdfMan.loadPDFToView();
-                            System.exit(0);
-                        } else {
-                            System.exit(0);
-                        }
-                    } else {
-                        // failure
-                        System.exit(1);
-                    }
-                }
-            });
-            joinerThread.start();
+            if (PDFJoiner.submitJoin()) {
+                // the job has its own copy of the sources; a new output is needed so the next job doesn't overwrite this one:
+                PDFJoiner.destinationFile = null;
+                this.jTextFieldOutputPDF.setText("");
+            }
         } else {
             PDFJoiner.outputExceptionToUser(new Exception("Not all informaiton such as source and destination have been set. Cannot start the merge process."));
         }
     }//GEN-LAST:event_jButtonJoinPDFsActionPerformed
 
     private void jButtonMoveUpActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButtonMoveUpActionPerformed
-        int row = getSelectedRow();
-        if (row > -1) {
-            if (PDFJoiner.reOrderSourceFiles(row, PDFJoiner.DIR_UP)) {
-                repaintSourceList();
-                this.jTableSourceFiles.setRowSelectionInterval(row - 1, row - 1);
+        int[] rows = getSelectedRows();
+        if (rows.length > 0) {
+            if (PDFJoiner.reOrderSourceFiles(rows, PDFJoiner.DIR_UP)) {
+                reselectRows(rows, -1);
             } else {
                 PDFJoiner.outputExceptionToUser(new Exception("Could not move item"));
             }
@@ -312,27 +449,67 @@ public class MainWindow extends javax.swing.JFrame {
     }//GEN-LAST:event_jButtonMoveUpActionPerformed
 
     private void jButtonMoveDownActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButtonMoveDownActionPerformed
-        int row = getSelectedRow();
-        if (row > -1) {
-            if (PDFJoiner.reOrderSourceFiles(row, PDFJoiner.DIR_DOWN)) {
-                repaintSourceList();
-                this.jTableSourceFiles.setRowSelectionInterval(row + 1, row + 1);
+        int[] rows = getSelectedRows();
+        if (rows.length > 0) {
+            if (PDFJoiner.reOrderSourceFiles(rows, PDFJoiner.DIR_DOWN)) {
+                reselectRows(rows, 1);
             } else {
                 PDFJoiner.outputExceptionToUser(new Exception("Could not move item"));
             }
         }
     }//GEN-LAST:event_jButtonMoveDownActionPerformed
 
+    private void jButtonAddFolderActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButtonAddFolderActionPerformed
+        PDFJoiner.selectSourceDirectory();
+    }//GEN-LAST:event_jButtonAddFolderActionPerformed
+
+    private void jButtonCancelJobActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButtonCancelJobActionPerformed
+        for (MergeJob job : getSelectedJobs()) {
+            PDFJoiner.jobQueue.cancel(job);
+        }
+    }//GEN-LAST:event_jButtonCancelJobActionPerformed
+
+    private void jButtonViewJobActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButtonViewJobActionPerformed
+        List<MergeJob> selected = getSelectedJobs();
+        if (selected.size() == 1) {
+            PDFJoiner.viewJobOutput(selected.get(0));
+        } else {
+            PDFJoiner.outputExceptionToUser(new Exception("Select one job to view its PDF."));
+        }
+    }//GEN-LAST:event_jButtonViewJobActionPerformed
+
+    private void jButtonClearJobsActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButtonClearJobsActionPerformed
+        PDFJoiner.jobQueue.clearFinished();
+    }//GEN-LAST:event_jButtonClearJobsActionPerformed
+
+    private void formWindowClosing(java.awt.event.WindowEvent evt) {//GEN-FIRST:event_formWindowClosing
+        if (PDFJoiner.jobQueue.hasActiveJobs()
+                && !PDFJoiner.outputYesNoQuestionToUser("Merge jobs are still queued or running. Cancel them and exit?", "Exit PDFJoiner?")) {
+            return;
+        }
+        this.jobTimer.stop();
+        PDFJoiner.jobQueue.shutdown();
+        dispose();
+        System.exit(0);
+    }//GEN-LAST:event_formWindowClosing
+
     // Variables declaration - do not modify//GEN-BEGIN:variables
+    private javax.swing.JButton jButtonAddFolder;
     private javax.swing.JButton jButtonAddSourceFiles;
+    private javax.swing.JButton jButtonCancelJob;
     private javax.swing.JButton jButtonChooseOutputPDF;
+    private javax.swing.JButton jButtonClearJobs;
     private javax.swing.JButton jButtonJoinPDFs;
     private javax.swing.JButton jButtonMoveDown;
     private javax.swing.JButton jButtonMoveUp;
     private javax.swing.JButton jButtonRemove;
+    private javax.swing.JButton jButtonViewJob;
+    private javax.swing.JLabel jLabelJobs;
     private javax.swing.JLabel jLabelOutputPDF;
     private javax.swing.JLabel jLabelSourceFiles;
+    private javax.swing.JScrollPane jScrollPaneJobs;
     private javax.swing.JScrollPane jScrollPaneSourceTable;
+    private javax.swing.JTable jTableJobs;
     private javax.swing.JTable jTableSourceFiles;
     private javax.swing.JTextField jTextFieldOutputPDF;
     // End of variables declaration//GEN-END:variables
@@ -16,20 +16,43 @@
  */
 package com.reid.pdfjoiner;
 
+import com.reid.pdfjoiner.primitive.MergeJob;
+import com.reid.pdfjoiner.primitive.MergeOptions;
+import com.reid.pdfjoiner.primitive.MergeReport;
+import com.reid.pdfjoiner.service.DocDetectorConverter;
+import com.reid.pdfjoiner.service.JobQueue;
 import com.reid.pdfjoiner.service.PDFManager;
+import com.reid.pdfjoiner.service.PreConverter;
+import com.reid.pdfjoiner.service.PreviewRenderer;
+import com.reid.pdfjoiner.service.SourceImporter;
+import com.reid.pdfjoiner.service.SourceIndexer;
+import com.reid.pdfjoiner.service.impl.DocDetectorConverterImpl;
+import com.reid.pdfjoiner.service.impl.JobQueueImpl;
 import com.reid.pdfjoiner.service.impl.PDFManagerImpl;
+import com.reid.pdfjoiner.service.impl.PreConverterImpl;
+import com.reid.pdfjoiner.service.impl.PreviewRendererImpl;
+import com.reid.pdfjoiner.service.impl.SourceImporterImpl;
+import com.reid.pdfjoiner.service.impl.SourceIndexerImpl;
+import java.awt.Desktop;
 import java.awt.FileDialog;
 import java.awt.Frame;
 import java.io.File;
 import java.io.FilenameFilter;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.swing.ImageIcon;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 
@@ -43,14 +66,35 @@ public class PDFJoiner {
 
     public static MainWindow mw;
     public static List<File> sourceFiles;
+    public static SourceTableModel sourceModel;
     public static File destinationFile;
     public static final String SUFFIX = "pdf";
     public static PDFManager pdfMan;
+    public static SourceIndexer indexer;
+    public static PreviewRenderer previewer;
+    public static PreConverter preConverter;
+    public static JobQueue jobQueue;
+    // concurrent jobs share the heap through the merge admission control:
+    private static final int JOB_THREADS = Math.max(1, Integer.getInteger("pdfjoiner.jobs.threads", 2));
+    // journaled jobs pick up where they left off if they fail or are cut short, at the cost of merging large ones twice:
+    private static final boolean JOURNAL_JOBS = Boolean.getBoolean("pdfjoiner.journal");
+    // previews are sized to fit the source table rows; cap their memory use:
+    private static final int PREVIEW_HEIGHT = 54;
+    private static final long PREVIEW_CACHE_BYTES = 32L * 1024 * 1024;
     public static final int DIR_UP = 1;
     public static final int DIR_DOWN = -1;
-    // PDF should work on all platforms; PPTX, PPT, DOC, DOCX will only work in a MS Windows environment with MS Office installed
-    public static final List<String> source_extensions = Arrays.asList("pdf", "pptx", "ppt", "doc", "docx");
-    public static JFrame processingFrame;
+    // PDF should work on all platforms; the others only where a converter backend is available, eg MS Office on Windows or LibreOffice
+    public static final List<String> source_extensions = Arrays.asList("pdf", "pptx", "ppt", "doc", "docx", "odp", "odt");
+    // built on first use, as loading the animation is a noticeable part of startup:
+    private static JFrame processingFrame;
+    // whether any Office format can be converted; null until probed in the background, as probing runs the converters:
+    private static volatile Boolean officeConversion;
+    // the probe loads the converter backends and starts LibreOffice, so it waits until an Office document might be involved:
+    private static final AtomicBoolean officeProbeStarted = new AtomicBoolean();
+    // jobs whose outcome has been shown to the user; only touched on the event dispatch thread:
+    private static final Set<Integer> reportedJobs = new HashSet<>();
+    // runs a small merge and exits, so the JVM can record which classes a real session loads:
+    public static final String ARG_CDS_TRAINING = "--cds-training";
 
     /**
      * The main method is the entry point to this program.
@@ -58,49 +102,117 @@ public class PDFJoiner {
      * @param args command-line arguments; assumed to be empty for this program.
      */
     public static void main(String[] args) {
+        boolean training = Arrays.asList(args).contains(ARG_CDS_TRAINING);
+        if (training) {
+            // the training merge must really run, not be answered from an earlier one:
+            System.setProperty("pdfjoiner.cache.maxmb", "0");
+        }
         initializeSettings();
-        // multiple threads will be needed to split the GUI from the actual joiner, else GUI lag results:
-        Thread pFrame = new Thread(new Runnable() {
+        PDFJoiner.sourceFiles = new ArrayList<>();
+        preConverter = new PreConverterImpl();
+        pdfMan = new PDFManagerImpl(preConverter);
+        jobQueue = new JobQueueImpl(preConverter, JOB_THREADS);
+        indexer = new SourceIndexerImpl();
+        previewer = new PreviewRendererImpl(PREVIEW_HEIGHT, PREVIEW_CACHE_BYTES);
+        if (training) {
+            StartupTraining.run();
+            return;
+        }
+        jobQueue.addChangeListener(new Runnable() {
             @Override
             public void run() {
-                initProcessingWindow();
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        reportFinishedJobs();
+                    }
+                });
             }
         });
-        pFrame.start();
-
-        PDFJoiner.sourceFiles = new ArrayList<>();
-        pdfMan = new PDFManagerImpl();
         mw = new MainWindow();
         mw.setLocationRelativeTo(null);
         mw.setVisible(true);
     }
 
     /**
-     * After checking that all necessary parameters are set, this will execute
-     * the PDF join process
+     * After checking that all necessary parameters are set, this will queue
+     * the PDF join process to run in the background, leaving the window free
+     * to build the next job
      *
-     * @return true on successful join
+     * @return true if the job was queued
+     */
+    public static boolean submitJoin() {
+        try {
+            MergeOptions options = new MergeOptions();
+            options.setJournaled(JOURNAL_JOBS);
+            // unreadable or damaged sources are dealt with by the validation stage of the join:
+            jobQueue.submit(destinationFile, sourceFiles, options);
+            return true;
+        } catch (IllegalArgumentException ex) {
+            PDFJoiner.outputExceptionToUser(ex);
+            return false;
+        }
+    }
+
+    /**
+     * Tells the user about any job that has finished with rejected sources or
+     * failed since the last call. The jobs run on worker threads, so this is
+     * called on the event dispatch thread when the queue changes.
      */
-    public static boolean executeJoin() {
-        boolean status = false;
-        if (destinationFile.getParentFile().canWrite() && !sourceFiles.isEmpty()) {
-            for (File f : sourceFiles) {
-                if (f.exists() && f.canRead()) {
-                    status = pdfMan.joinPDFs(destinationFile, sourceFiles);
+    private static void reportFinishedJobs() {
+        for (MergeJob job : jobQueue.getJobs()) {
+            int status = job.getStatus();
+            if ((status != MergeJob.STATUS_DONE && status != MergeJob.STATUS_FAILED) || !reportedJobs.add(job.getId())) {
+                continue;
+            }
+            MergeReport report = job.getReport();
+            if (report == null) {
+                continue;
+            }
+            if (!report.getRejectedSources().isEmpty()) {
+                StringBuilder rejected = new StringBuilder();
+                for (String description : report.getRejectedSources()) {
+                    rejected.append(description).append("\n");
+                }
+                String outcome;
+                if (status == MergeJob.STATUS_FAILED) {
+                    outcome = "Job " + job.getId() + " was stopped because these sources could not be read or repaired";
+                } else if (job.getOptions().getBadSourcePolicy() == MergeOptions.BAD_SOURCE_PLACEHOLDER) {
+                    outcome = "Job " + job.getId() + " replaced the following sources with a placeholder page";
                 } else {
-                    processingFrame.dispose();
-                    PDFJoiner.outputExceptionToUser(new Exception("One or more source files cannot be read: " + f.getAbsolutePath()));
+                    outcome = "Job " + job.getId() + " skipped the following sources";
                 }
+                PDFJoiner.outputExceptionToUser(new Exception(outcome + ":\n" + rejected));
+            } else if (status == MergeJob.STATUS_FAILED && report.getFailure() != null) {
+                PDFJoiner.outputExceptionToUser(new Exception("Job " + job.getId() + " failed: " + report.getFailure()));
             }
+        }
+    }
 
-        } else {
-            processingFrame.dispose();
-            PDFJoiner.outputExceptionToUser(new Exception("Destination file unwritable or source files list empty."));
+    /**
+     * Opens the output of a finished job in the desktop PDF viewer
+     *
+     * @param job populated MergeJob DTO
+     */
+    public static void viewJobOutput(MergeJob job) {
+        if (job.getStatus() != MergeJob.STATUS_DONE) {
+            PDFJoiner.outputExceptionToUser(new Exception("Job " + job.getId() + " has not finished successfully, so there is no PDF to view."));
+            return;
         }
-        if (processingFrame.isActive()) {
-            processingFrame.dispose();
+        if (!Desktop.isDesktopSupported()) {
+            PDFJoiner.outputExceptionToUser(new Exception("Desktop viewing of the new PDF is not available because the Java Desktop API is not installed."));
+            return;
+        }
+        // if the output was split into parts, show the first one:
+        File output = job.getDestination();
+        if (job.getReport() != null && !job.getReport().getOutputFiles().isEmpty()) {
+            output = job.getReport().getOutputFiles().get(0);
+        }
+        try {
+            Desktop.getDesktop().open(output);
+        } catch (IOException ex) {
+            PDFJoiner.outputExceptionToUser(ex);
         }
-        return status;
     }
 
     /**
@@ -113,33 +225,26 @@ public class PDFJoiner {
      * @return true on success
      */
     public static boolean reOrderSourceFiles(int index, int direction) {
-        // first, check if index exists:
-        if (PDFJoiner.sourceFiles.size() <= index) {
-            return false;
-        }
-        boolean rtn;
-        switch (direction) {
-            case (PDFJoiner.DIR_DOWN):
-                if (PDFJoiner.sourceFiles.size() - index > 1) {
-                    Collections.rotate(PDFJoiner.sourceFiles.subList(index, index + 2), -1);
-                    rtn = true;
-                } else {
-                    rtn = false;
-                }
-                break;
-            case (PDFJoiner.DIR_UP):
-                if (index > 0) {
-                    Collections.rotate(PDFJoiner.sourceFiles.subList(index - 1, index + 1), 1);
-                    rtn = true;
-                } else {
-                    rtn = false;
-                }
-                break;
-            default:
+        return reOrderSourceFiles(new int[]{index}, direction);
+    }
+
+    /**
+     * Helper method that will move several source files at once, keeping their
+     * order relative to each other
+     *
+     * @param indices references to the current locations in the ArrayList of
+     * the items to move
+     * @param direction reference to PDFJoiner.DIR_ to move up or down
+     * @return true on success
+     */
+    public static boolean reOrderSourceFiles(int[] indices, int direction) {
+        // first, check if every index exists:
+        for (int index : indices) {
+            if (index < 0 || PDFJoiner.sourceFiles.size() <= index) {
                 return false;
+            }
         }
-
-        return rtn;
+        return PDFJoiner.sourceModel.moveRows(indices, direction);
     }
 
     /**
@@ -172,9 +277,10 @@ public class PDFJoiner {
         List<File> newSourceFiles;
         try {
             String title;
-            if (pdfMan.isWindows()) {
+            probeOfficeConversion();
+            if (officeConversionAvailable()) {
                 /*
-                The Microsoft Word and Microsoft Excel covnersion methods rely on native MS Office installation, which will only be available in Windows
+                Word and PowerPoint conversion relies on a converter backend, eg native MS Office on Windows, or LibreOffice
                  */
                 title = "Select Source files (PDF, PowerPoint, Word, etc)";
             } else {
@@ -186,7 +292,7 @@ public class PDFJoiner {
                 return false;
             } else {
                 // merge the existing list of source files with these new ones
-                PDFJoiner.sourceFiles.addAll(newSourceFiles);
+                PDFJoiner.addSourceFiles(newSourceFiles);
                 return true;
             }
         } catch (NullPointerException ex) {
@@ -195,12 +301,124 @@ public class PDFJoiner {
         return false;
     }
 
+    /**
+     * Helper method to select a directory and add every supported source file
+     * beneath it. The tree is walked in the background, behind the processing
+     * window, and the results are added to the list in one batch.
+     */
+    public static void selectSourceDirectory() {
+        JFileChooser chooser = new JFileChooser(System.getProperty("user.home"));
+        chooser.setDialogTitle("Select a folder of source files");
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (chooser.showOpenDialog(mw) != JFileChooser.APPROVE_OPTION) {
+            cancelClicked();
+            return;
+        }
+        final File root = chooser.getSelectedFile();
+        final SourceImporter importer = new SourceImporterImpl(true);
+        probeOfficeConversion();
+        showProcessingWindow();
+        new SwingWorker<List<File>, Void>() {
+            @Override
+            protected List<File> doInBackground() throws Exception {
+                return importer.importDirectory(root, SourceImporter.SORT_NATURAL);
+            }
+
+            @Override
+            protected void done() {
+                hideProcessingWindow();
+                try {
+                    List<File> found = get();
+                    if (found.isEmpty()) {
+                        PDFJoiner.outputMessageToUser("No supported source files were found in " + root.getAbsolutePath());
+                    } else {
+                        PDFJoiner.addSourceFiles(found);
+                    }
+                } catch (InterruptedException | ExecutionException ex) {
+                    PDFJoiner.outputExceptionToUser(ex);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Checks in the background whether any Office document can be converted
+     * on this host, the first time it is called. Finding out can take a
+     * while, eg LibreOffice is started to ask its version, so it is done
+     * once, off the event dispatch thread, and only once Office documents
+     * might be added rather than at startup.
+     */
+    private static void probeOfficeConversion() {
+        if (!officeProbeStarted.compareAndSet(false, true)) {
+            return;
+        }
+        Thread probe = new Thread("PDFJoiner-office-probe") {
+            @Override
+            public void run() {
+                DocDetectorConverter detector = new DocDetectorConverterImpl();
+                boolean available = false;
+                for (int type : new int[]{PDFManager.TYPE_DOCX, PDFManager.TYPE_PPTX, PDFManager.TYPE_ODT, PDFManager.TYPE_ODP}) {
+                    if (detector.canConvert(type)) {
+                        available = true;
+                        break;
+                    }
+                }
+                officeConversion = available;
+            }
+        };
+        probe.setDaemon(true);
+        probe.start();
+    }
+
+    /**
+     * Simple helper method to check whether any Office document can be
+     * converted on this host
+     *
+     * @return true if at least one Office format has an available converter,
+     * or if the background check hasn't started or finished yet
+     */
+    private static boolean officeConversionAvailable() {
+        return !Boolean.FALSE.equals(officeConversion);
+    }
+
     private static void cancelClicked() {
         PDFJoiner.outputExceptionToUser(new Exception("Cancel was clicked on source files selection; it will not be possible to proceed until a source is selected..."));
     }
 
-    public static void removeFileFromSources(File f) {
-        PDFJoiner.sourceFiles.removeIf(sourceFile -> sourceFile.getAbsolutePath().equals(f.getAbsolutePath()));
+    /**
+     * Appends files to the end of the source list as a single batch, and
+     * starts converting any that aren't PDFs in the background so that the
+     * join doesn't have to wait for them
+     *
+     * @param files files to add, in order
+     */
+    public static void addSourceFiles(List<File> files) {
+        for (File file : files) {
+            if (!file.getName().toLowerCase().endsWith(".pdf")) {
+                probeOfficeConversion();
+                break;
+            }
+        }
+        PDFJoiner.sourceModel.addSources(files);
+        PDFJoiner.preConverter.convertAhead(files);
+    }
+
+    /**
+     * Removes the source files at the given positions in the list, cancelling
+     * the background conversion of any that are no longer in the list at all
+     *
+     * @param indices references to the locations in the ArrayList of the items
+     * to remove
+     */
+    public static void removeSourceFiles(int[] indices) {
+        Set<File> removed = new HashSet<>();
+        for (int index : indices) {
+            removed.add(PDFJoiner.sourceFiles.get(index));
+        }
+        PDFJoiner.sourceModel.removeRows(indices);
+        // the same file may have been added more than once:
+        removed.removeAll(PDFJoiner.sourceFiles);
+        PDFJoiner.preConverter.cancel(removed);
     }
 
     /**
@@ -263,16 +481,10 @@ public class PDFJoiner {
                             acceptable = true;
                         }
                     } else {
-                        if (pdfMan.isWindows()) {
-                            for (String extension : PDFJoiner.source_extensions) {
-                                if (name.toLowerCase().endsWith("." + extension)) {
-                                    acceptable = true;
-                                }
-                            }
-                        } else {
-                            if (name.toLowerCase().endsWith("." + PDFJoiner.SUFFIX)) {
-                                acceptable = true;
-                            }
+                        // by extension only, as this runs for every file listed; a source that can't be converted is reported by the join:
+                        int dot = name.lastIndexOf('.');
+                        if (dot >= 0 && source_extensions.contains(name.substring(dot + 1).toLowerCase())) {
+                            acceptable = true;
                         }
                     }
                     return acceptable;
@@ -327,12 +539,30 @@ public class PDFJoiner {
     }
 
     /**
-     * Displays a pop-up window to user to signify that batch job is running
+     * Displays a pop-up window to user to signify that batch job is running,
+     * building it first if this is the first job
      */
-    private static void initProcessingWindow() {
-        if (PDFJoiner.processingFrame == null) {
-            PDFJoiner.processingFrame = new JFrame();
+    public static synchronized void showProcessingWindow() {
+        if (processingFrame == null) {
+            initProcessingWindow();
+        }
+        processingFrame.setVisible(true);
+    }
+
+    /**
+     * Hides the "processing" pop-up window, if it is showing
+     */
+    public static synchronized void hideProcessingWindow() {
+        if (processingFrame != null && processingFrame.isVisible()) {
+            processingFrame.dispose();
         }
+    }
+
+    /**
+     * Builds the pop-up window to user to signify that batch job is running
+     */
+    private static void initProcessingWindow() {
+        PDFJoiner.processingFrame = new JFrame();
         processingFrame.setAlwaysOnTop(true);
         processingFrame.setAutoRequestFocus(true);
         processingFrame.setResizable(false);
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner;
+
+import com.reid.pdfjoiner.service.PreviewRenderer;
+import java.awt.Component;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import javax.swing.ImageIcon;
+import javax.swing.JLabel;
+import javax.swing.JTable;
+import javax.swing.SwingUtilities;
+import javax.swing.table.DefaultTableCellRenderer;
+
+/**
+ * Draws the first-page preview of a source file in the table. Only ever
+ * reads from the preview cache; if the preview isn't there yet it is requested
+ * in the background and the table is repainted once it arrives.
+ *
+ * @author pmreid
+ */
+public class PreviewCellRenderer extends DefaultTableCellRenderer {
+
+    private final PreviewRenderer previewer;
+
+    public PreviewCellRenderer(PreviewRenderer previewer) {
+        this.previewer = previewer;
+        setHorizontalAlignment(JLabel.CENTER);
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(final JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+        super.getTableCellRendererComponent(table, null, isSelected, hasFocus, row, column);
+        setIcon(null);
+        if (value instanceof File) {
+            File f = (File) value;
+            BufferedImage image = previewer.getCachedPreview(f);
+            if (image != null) {
+                setIcon(new ImageIcon(image));
+            } else {
+                previewer.requestPreview(f, new Runnable() {
+                    @Override
+                    public void run() {
+                        SwingUtilities.invokeLater(new Runnable() {
+                            @Override
+                            public void run() {
+                                table.repaint();
+                            }
+                        });
+                    }
+                });
+            }
+        }
+        return this;
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner;
+
+import com.reid.pdfjoiner.primitive.SourceInfo;
+import com.reid.pdfjoiner.service.SourceIndexer;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import javax.swing.SwingWorker;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * A table model backed directly by the List of source files. Nothing is
+ * copied into the model; cells are worked out only when the JTable asks for a
+ * visible row, and each edit fires an event covering just the rows it changed.
+ * All methods must be called on the Swing event dispatch thread.
+ *
+ * @author pmreid
+ */
+public class SourceTableModel extends AbstractTableModel {
+
+    public static final int COL_PREVIEW = 0;
+    public static final int COL_NAME = 1;
+    public static final int COL_PATH = 2;
+    public static final int COL_PAGES = 3;
+    public static final int COL_SIZE = 4;
+    public static final int COL_VERSION = 5;
+    public static final int COL_ENCRYPTED = 6;
+    private static final String[] COLUMNS = {"Preview", "Source file name", "Full path", "Pages", "Size", "PDF version", "Encrypted"};
+    private static final String PENDING = "...";
+
+    private final List<File> sources;
+    private final SourceIndexer indexer;
+
+    public SourceTableModel(List<File> sources, SourceIndexer indexer) {
+        this.sources = sources;
+        this.indexer = indexer;
+    }
+
+    @Override
+    public int getRowCount() {
+        return sources.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        File f = sources.get(rowIndex);
+        switch (columnIndex) {
+            case COL_PREVIEW:
+                // the preview cell renderer works out the image from the file
+                return f;
+            case COL_NAME:
+                return f.getName();
+            case COL_PATH:
+                return f.getPath();
+            default:
+                SourceInfo info = indexer.getCachedInfo(f);
+                return info == null ? PENDING : describeInfo(info, columnIndex);
+        }
+    }
+
+    public File getSourceAt(int rowIndex) {
+        return sources.get(rowIndex);
+    }
+
+    /**
+     * Appends a batch of files to the end of the list, firing a single insert
+     * event for the whole batch, and indexes them in the background
+     *
+     * @param files files to add, in order
+     */
+    public void addSources(Collection<File> files) {
+        if (files.isEmpty()) {
+            return;
+        }
+        int first = sources.size();
+        sources.addAll(files);
+        fireTableRowsInserted(first, sources.size() - 1);
+        indexInBackground(new ArrayList<>(files));
+    }
+
+    /**
+     * Removes the given rows from the list. Contiguous runs of rows are
+     * removed with a single event each.
+     *
+     * @param rows indices of the rows to remove, in any order
+     */
+    public void removeRows(int[] rows) {
+        int[] sorted = rows.clone();
+        Arrays.sort(sorted);
+        int end = sorted.length - 1;
+        while (end >= 0) {
+            int start = end;
+            while (start > 0 && sorted[start - 1] == sorted[start] - 1) {
+                start--;
+            }
+            // removing a run from the back keeps the lower indices valid:
+            sources.subList(sorted[start], sorted[end] + 1).clear();
+            fireTableRowsDeleted(sorted[start], sorted[end]);
+            end = start - 1;
+        }
+    }
+
+    /**
+     * Moves each of the given rows one place up or down, keeping the
+     * selected rows in the same order relative to each other
+     *
+     * @param rows indices of the rows to move, in any order
+     * @param direction reference to PDFJoiner.DIR_ to move up or down
+     * @return true on success; false if any row is already at the limit
+     */
+    public boolean moveRows(int[] rows, int direction) {
+        if (rows.length == 0) {
+            return false;
+        }
+        int[] sorted = rows.clone();
+        Arrays.sort(sorted);
+        int first = sorted[0];
+        int last = sorted[sorted.length - 1];
+        if (direction == PDFJoiner.DIR_UP) {
+            if (first <= 0) {
+                return false;
+            }
+            for (int row : sorted) {
+                swap(row, row - 1);
+            }
+            fireTableRowsUpdated(first - 1, last);
+        } else if (direction == PDFJoiner.DIR_DOWN) {
+            if (last >= sources.size() - 1) {
+                return false;
+            }
+            for (int i = sorted.length - 1; i >= 0; i--) {
+                swap(sorted[i], sorted[i] + 1);
+            }
+            fireTableRowsUpdated(first, last + 1);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private void swap(int a, int b) {
+        File tmp = sources.get(a);
+        sources.set(a, sources.get(b));
+        sources.set(b, tmp);
+    }
+
+    /**
+     * Indexes files off the event dispatch thread, then repaints the rows so
+     * the extra columns are filled in
+     *
+     * @param files files to index
+     */
+    private void indexInBackground(final List<File> files) {
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                indexer.indexSources(files);
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                if (!sources.isEmpty()) {
+                    fireTableRowsUpdated(0, sources.size() - 1);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Simple helper method to turn the index information into table text
+     *
+     * @param info populated SourceInfo DTO
+     * @param columnIndex one of the COL_ references
+     * @return text to display
+     */
+    private static String describeInfo(SourceInfo info, int columnIndex) {
+        switch (columnIndex) {
+            case COL_PAGES:
+                if (!info.isValid()) {
+                    return "Invalid: " + info.getErrorMessage();
+                } else if (info.getPageCount() == SourceInfo.PAGES_UNKNOWN) {
+                    return "(converted on join)";
+                } else if (info.getWarning() != null) {
+                    return info.getPageCount() + " (" + info.getWarning() + ")";
+                }
+                return String.valueOf(info.getPageCount());
+            case COL_SIZE:
+                return describeSize(info.getByteSize());
+            case COL_VERSION:
+                return info.getPdfVersion() == null ? "" : info.getPdfVersion();
+            case COL_ENCRYPTED:
+                return info.isEncrypted() ? "Yes" : "No";
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * Simple helper method to give a human-readable file size
+     *
+     * @param bytes size in bytes
+     * @return size in KB or MB
+     */
+    private static String describeSize(long bytes) {
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner;
+
+import com.reid.pdfjoiner.primitive.MergeOptions;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+/**
+ * A representative PDF-only session, run with the --cds-training argument
+ * while the JVM records the classes it loads into a class-data sharing
+ * archive (see the appcds profile in the pom). It builds the main window
+ * without showing it, where there is a display, then indexes, previews and
+ * merges a few generated PDFs and deletes them again.
+ *
+ * @author pmreid
+ */
+final class StartupTraining {
+
+    private static final int SOURCES = 3;
+    private static final int PAGES_PER_SOURCE = 2;
+
+    private StartupTraining() {
+    }
+
+    static void run() {
+        if (!GraphicsEnvironment.isHeadless()) {
+            MainWindow window = new MainWindow();
+            window.pack();
+            window.dispose();
+        }
+        File dir = null;
+        try {
+            dir = Files.createTempDirectory("PDFJoiner_training").toFile();
+            List<File> sources = new ArrayList<>();
+            for (int i = 0; i < SOURCES; i++) {
+                File f = new File(dir, "source-" + i + "." + PDFJoiner.SUFFIX);
+                writeSource(f, i);
+                sources.add(f);
+            }
+            PDFJoiner.indexer.indexSources(sources);
+            final Object done = new Object();
+            synchronized (done) {
+                PDFJoiner.previewer.requestPreview(sources.get(0), new Runnable() {
+                    @Override
+                    public void run() {
+                        synchronized (done) {
+                            done.notifyAll();
+                        }
+                    }
+                });
+                done.wait(10000);
+            }
+            // through the job queue, as the GUI does:
+            final Object finished = new Object();
+            PDFJoiner.jobQueue.addChangeListener(new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (finished) {
+                        finished.notifyAll();
+                    }
+                }
+            });
+            synchronized (finished) {
+                PDFJoiner.jobQueue.submit(new File(dir, "merged." + PDFJoiner.SUFFIX), sources, new MergeOptions());
+                long deadline = System.currentTimeMillis() + 60000;
+                while (PDFJoiner.jobQueue.hasActiveJobs() && System.currentTimeMillis() < deadline) {
+                    finished.wait(1000);
+                }
+            }
+        } catch (IOException ex) {
+            Logger.getLogger(StartupTraining.class.getName()).log(Level.WARNING, "Training run failed", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            PDFJoiner.previewer.shutdown();
+            PDFJoiner.preConverter.shutdown();
+            PDFJoiner.jobQueue.shutdown();
+            deleteTree(dir);
+        }
+    }
+
+    private static void writeSource(File f, int number) throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            BufferedImage img = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = img.createGraphics();
+            g.setColor(Color.BLUE);
+            g.fillRect(8, 8, 48, 48);
+            g.dispose();
+            PDImageXObject image = LosslessFactory.createFromImage(doc, img);
+            for (int p = 0; p < PAGES_PER_SOURCE; p++) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                doc.addPage(page);
+                try (PDPageContentStream cs = new PDPageContentStream(doc, page)) {
+                    cs.beginText();
+                    cs.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+                    cs.newLineAtOffset(50, 780);
+                    cs.showText("Training source " + number + ", page " + (p + 1));
+                    cs.endText();
+                    cs.drawImage(image, 50, 500, 200, 200);
+                }
+            }
+            doc.save(f);
+        }
+    }
+
+    private static void deleteTree(File f) {
+        if (f == null) {
+            return;
+        }
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteTree(child);
+            }
+        }
+        f.delete();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.primitive;
+
+/**
+ * A data transfer object to store the heap reserved for one merge job by the
+ * admission controller, and how the job must run to stay within it
+ *
+ * @author pmreid
+ */
+public class Admission {
+
+    private long sourceBytes;
+    private int pages;
+    private long reservedBytes;
+    private boolean spillToDisk;
+    private long queuedMillis;
+
+    public Admission() {
+    }
+
+    public Admission(long sourceBytes, int pages) {
+        this.sourceBytes = sourceBytes;
+        this.pages = pages;
+    }
+
+    public long getSourceBytes() {
+        return sourceBytes;
+    }
+
+    public void setSourceBytes(long sourceBytes) {
+        this.sourceBytes = sourceBytes;
+    }
+
+    public int getPages() {
+        return pages;
+    }
+
+    public void setPages(int pages) {
+        this.pages = pages;
+    }
+
+    /**
+     * @return bytes of the heap budget held by the job until it is released
+     */
+    public long getReservedBytes() {
+        return reservedBytes;
+    }
+
+    public void setReservedBytes(long reservedBytes) {
+        this.reservedBytes = reservedBytes;
+    }
+
+    /**
+     * @return true if the job must cache its streams in temporary files
+     * rather than in memory
+     */
+    public boolean isSpillToDisk() {
+        return spillToDisk;
+    }
+
+    public void setSpillToDisk(boolean spillToDisk) {
+        this.spillToDisk = spillToDisk;
+    }
+
+    /**
+     * @return time the job waited for room in the budget
+     */
+    public long getQueuedMillis() {
+        return queuedMillis;
+    }
+
+    public void setQueuedMillis(long queuedMillis) {
+        this.queuedMillis = queuedMillis;
+    }
+
+}
@@ -28,6 +28,7 @@ public class ConversionResult {
     private boolean success;
     private File tempFile;
     private int source_file_type;
+    private String backend;
 
     public ConversionResult() {
         this.success = false;
@@ -63,4 +64,16 @@ public class ConversionResult {
         this.source_file_type = source_file_type;
     }
 
+    /**
+     * @return name of the converter backend that produced the PDF, or null if
+     * none succeeded
+     */
+    public String getBackend() {
+        return backend;
+    }
+
+    public void setBackend(String backend) {
+        this.backend = backend;
+    }
+
 }
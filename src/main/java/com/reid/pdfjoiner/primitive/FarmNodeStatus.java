@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.primitive;
+
+/**
+ * A data transfer object to store a snapshot of one conversion farm node: its
+ * health, its current load and the latency of the conversions it has done
+ *
+ * @author pmreid
+ */
+public class FarmNodeStatus {
+
+    private String url;
+    private boolean healthy;
+    private int outstanding;
+    private long completed;
+    private long failed;
+    private long averageMillis;
+    private double millisPerMegabyte;
+
+    public FarmNodeStatus() {
+    }
+
+    public FarmNodeStatus(String url) {
+        this.url = url;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    /**
+     * @return false if the node failed its last health check or conversion
+     */
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+
+    /**
+     * @return conversions sent to the node and not yet answered
+     */
+    public int getOutstanding() {
+        return outstanding;
+    }
+
+    public void setOutstanding(int outstanding) {
+        this.outstanding = outstanding;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(long completed) {
+        this.completed = completed;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    /**
+     * @return mean time of the node's successful conversions
+     */
+    public long getAverageMillis() {
+        return averageMillis;
+    }
+
+    public void setAverageMillis(long averageMillis) {
+        this.averageMillis = averageMillis;
+    }
+
+    /**
+     * @return recent conversion time per MB of input, weighted towards the
+     * latest conversions, or 0 if the node has not converted anything yet
+     */
+    public double getMillisPerMegabyte() {
+        return millisPerMegabyte;
+    }
+
+    public void setMillisPerMegabyte(double millisPerMegabyte) {
+        this.millisPerMegabyte = millisPerMegabyte;
+    }
+
+}
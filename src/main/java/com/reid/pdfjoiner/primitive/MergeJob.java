@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.primitive;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * A data transfer object to store one merge job in the session's queue and
+ * how far it has got. The progress fields are written by the job's worker
+ * thread and read by the GUI, so they are volatile.
+ *
+ * @author pmreid
+ */
+public class MergeJob {
+
+    // waiting for a worker:
+    public static final int STATUS_QUEUED = 1;
+    public static final int STATUS_RUNNING = 2;
+    public static final int STATUS_DONE = 3;
+    public static final int STATUS_FAILED = 4;
+    // cancelled by the user, before or during the merge:
+    public static final int STATUS_CANCELLED = 5;
+
+    private int id;
+    private File destination;
+    private List<File> sources;
+    private MergeOptions options;
+    private long submittedMillis;
+    private volatile int status;
+    private volatile long startedMillis;
+    private volatile long finishedMillis;
+    private volatile MergeReport report;
+
+    public MergeJob() {
+        this.status = STATUS_QUEUED;
+    }
+
+    public MergeJob(int id, File destination, List<File> sources, MergeOptions options) {
+        this();
+        this.id = id;
+        this.destination = destination;
+        this.sources = sources;
+        this.options = options;
+    }
+
+    /**
+     * @return number of the job within the session, starting at 1
+     */
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public File getDestination() {
+        return destination;
+    }
+
+    public void setDestination(File destination) {
+        this.destination = destination;
+    }
+
+    /**
+     * @return the source files as they were when the job was submitted
+     */
+    public List<File> getSources() {
+        return sources;
+    }
+
+    public void setSources(List<File> sources) {
+        this.sources = sources;
+    }
+
+    public MergeOptions getOptions() {
+        return options;
+    }
+
+    public void setOptions(MergeOptions options) {
+        this.options = options;
+    }
+
+    public long getSubmittedMillis() {
+        return submittedMillis;
+    }
+
+    public void setSubmittedMillis(long submittedMillis) {
+        this.submittedMillis = submittedMillis;
+    }
+
+    /**
+     * @return reference to MergeJob.STATUS_
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    /**
+     * @return time the merge started, or 0 if it hasn't
+     */
+    public long getStartedMillis() {
+        return startedMillis;
+    }
+
+    public void setStartedMillis(long startedMillis) {
+        this.startedMillis = startedMillis;
+    }
+
+    /**
+     * @return time the job finished, failed or was cancelled, or 0 if it
+     * hasn't
+     */
+    public long getFinishedMillis() {
+        return finishedMillis;
+    }
+
+    public void setFinishedMillis(long finishedMillis) {
+        this.finishedMillis = finishedMillis;
+    }
+
+    /**
+     * @return report of the merge, or null until it has run
+     */
+    public MergeReport getReport() {
+        return report;
+    }
+
+    public void setReport(MergeReport report) {
+        this.report = report;
+    }
+
+}
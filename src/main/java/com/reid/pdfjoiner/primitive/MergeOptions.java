@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.primitive;
+
+/**
+ * A data transfer object to carry the optional settings of a merge job. The
+ * defaults reproduce a plain merge to a single file.
+ *
+ * @author pmreid
+ */
+public class MergeOptions {
+
+    public static final int UNLIMITED = 0;
+    // what to do with a source that can't be read or repaired:
+    public static final int BAD_SOURCE_FAIL_FAST = 1;
+    public static final int BAD_SOURCE_SKIP = 2;
+    public static final int BAD_SOURCE_PLACEHOLDER = 3;
+    // how hard to make sure the output has reached the disk before reporting success:
+    public static final int DURABILITY_NONE = 0;
+    public static final int DURABILITY_DATA = 1;
+    public static final int DURABILITY_FULL = 2;
+    // what to do with a page whose content is identical to an earlier one in the job:
+    public static final int DUPLICATE_PAGES_KEEP = 0;
+    public static final int DUPLICATE_PAGES_DROP = 1;
+    public static final int DUPLICATE_PAGES_REFERENCE = 2;
+
+    private boolean linearize;
+    private long maxPartBytes;
+    private int maxPartPages;
+    private int imageTargetDpi;
+    private float imageQuality;
+    private long imageMemoryLimit;
+    private boolean deterministic;
+    private int badSourcePolicy;
+    private int durability;
+    private int writeBufferSize;
+    private long streamMemoryLimit;
+    private boolean journaled;
+    private int duplicatePagePolicy;
+
+    public MergeOptions() {
+        this.linearize = false;
+        this.maxPartBytes = UNLIMITED;
+        this.maxPartPages = UNLIMITED;
+        this.imageTargetDpi = UNLIMITED;
+        this.imageQuality = 0.8f;
+        this.imageMemoryLimit = 256L * 1024 * 1024;
+        this.deterministic = false;
+        this.badSourcePolicy = BAD_SOURCE_SKIP;
+        this.durability = DURABILITY_NONE;
+        this.writeBufferSize = 1024 * 1024;
+        this.streamMemoryLimit = 64L * 1024 * 1024;
+        this.journaled = false;
+        this.duplicatePagePolicy = DUPLICATE_PAGES_KEEP;
+    }
+
+    public boolean isLinearize() {
+        return linearize;
+    }
+
+    /**
+     * @param linearize true to write a linearized ("Fast Web View") PDF, so
+     * that viewers can show the first page before the whole file has
+     * downloaded
+     */
+    public void setLinearize(boolean linearize) {
+        this.linearize = linearize;
+    }
+
+    public long getMaxPartBytes() {
+        return maxPartBytes;
+    }
+
+    /**
+     * @param maxPartBytes approximate upper limit on the size of each output
+     * file, or UNLIMITED
+     */
+    public void setMaxPartBytes(long maxPartBytes) {
+        this.maxPartBytes = maxPartBytes;
+    }
+
+    public int getMaxPartPages() {
+        return maxPartPages;
+    }
+
+    /**
+     * @param maxPartPages upper limit on the number of pages in each output
+     * file, or UNLIMITED
+     */
+    public void setMaxPartPages(int maxPartPages) {
+        this.maxPartPages = maxPartPages;
+    }
+
+    /**
+     * @return true if the output is to be split into numbered parts
+     */
+    public boolean isSharded() {
+        return maxPartBytes > UNLIMITED || maxPartPages > UNLIMITED;
+    }
+
+    public int getImageTargetDpi() {
+        return imageTargetDpi;
+    }
+
+    /**
+     * @param imageTargetDpi images with a higher resolution than this are
+     * downsampled to it; UNLIMITED leaves images alone
+     */
+    public void setImageTargetDpi(int imageTargetDpi) {
+        this.imageTargetDpi = imageTargetDpi;
+    }
+
+    public float getImageQuality() {
+        return imageQuality;
+    }
+
+    /**
+     * @param imageQuality JPEG quality, from 0 to 1, for images that were
+     * already JPEG; other images are re-encoded losslessly
+     */
+    public void setImageQuality(float imageQuality) {
+        this.imageQuality = imageQuality;
+    }
+
+    public long getImageMemoryLimit() {
+        return imageMemoryLimit;
+    }
+
+    /**
+     * @param imageMemoryLimit upper limit, in bytes, on the decoded images held
+     * in memory at once while downsampling
+     */
+    public void setImageMemoryLimit(long imageMemoryLimit) {
+        this.imageMemoryLimit = imageMemoryLimit;
+    }
+
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
+    /**
+     * @param deterministic true to give the output a document ID and dates
+     * that depend only on the sources and options, so that the same job always
+     * produces byte-identical files
+     */
+    public void setDeterministic(boolean deterministic) {
+        this.deterministic = deterministic;
+    }
+
+    public int getBadSourcePolicy() {
+        return badSourcePolicy;
+    }
+
+    /**
+     * @param badSourcePolicy reference to MergeOptions.BAD_SOURCE_ to stop the
+     * job, leave the source out, or put a page explaining its absence in its
+     * place
+     */
+    public void setBadSourcePolicy(int badSourcePolicy) {
+        this.badSourcePolicy = badSourcePolicy;
+    }
+
+    public int getDurability() {
+        return durability;
+    }
+
+    /**
+     * @param durability reference to MergeOptions.DURABILITY_: NONE leaves it
+     * to the operating system, DATA forces the file content to disk, FULL
+     * forces its metadata and the directory entry too
+     */
+    public void setDurability(int durability) {
+        this.durability = durability;
+    }
+
+    public int getWriteBufferSize() {
+        return writeBufferSize;
+    }
+
+    /**
+     * @param writeBufferSize size, in bytes, of the buffer output files are
+     * written through
+     */
+    public void setWriteBufferSize(int writeBufferSize) {
+        this.writeBufferSize = writeBufferSize;
+    }
+
+    public long getStreamMemoryLimit() {
+        return streamMemoryLimit;
+    }
+
+    /**
+     * @param streamMemoryLimit upper limit, in bytes, on the sources read from
+     * streams and channels that are held in memory for one job; sources past
+     * the limit are spilled to temporary files
+     */
+    public void setStreamMemoryLimit(long streamMemoryLimit) {
+        this.streamMemoryLimit = streamMemoryLimit;
+    }
+
+    public boolean isJournaled() {
+        return journaled;
+    }
+
+    /**
+     * @param journaled true to record each finished stage of the job in a
+     * journal, so that if the job fails or the application stops, running it
+     * again with the same sources, options and destination carries on from
+     * where it got to. Large jobs are then merged in batches, at the cost of
+     * one extra pass over the pages.
+     */
+    public void setJournaled(boolean journaled) {
+        this.journaled = journaled;
+    }
+
+    public int getDuplicatePagePolicy() {
+        return duplicatePagePolicy;
+    }
+
+    /**
+     * @param duplicatePagePolicy reference to MergeOptions.DUPLICATE_PAGES_:
+     * KEEP imports every page; DROP leaves out a page whose content and
+     * resources match an earlier page of the job; REFERENCE keeps the page but
+     * has it share the earlier page's content and resources, so they are only
+     * stored once in each output file. The pages of the next few sources are
+     * fingerprinted in parallel while earlier ones are merged, which parses
+     * each source once more, from local disk or memory.
+     */
+    public void setDuplicatePagePolicy(int duplicatePagePolicy) {
+        this.duplicatePagePolicy = duplicatePagePolicy;
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.primitive;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A data transfer object to store what a merge job actually did
+ *
+ * @author pmreid
+ */
+public class MergeReport {
+
+    private final List<File> outputFiles;
+    private final List<String> rejectedSources;
+    private final List<SourceValidation> validations;
+    private final List<String> duplicatePages;
+    private int sourcesMerged;
+    private int pagesWritten;
+    private int imagesOptimised;
+    private long imageBytesSaved;
+    private long imageMillis;
+    private boolean spilledToDisk;
+    private long queuedMillis;
+    private String failure;
+
+    public MergeReport() {
+        this.outputFiles = new ArrayList<>();
+        this.rejectedSources = new ArrayList<>();
+        this.validations = new ArrayList<>();
+        this.duplicatePages = new ArrayList<>();
+    }
+
+    /**
+     * @return the files written, in order; more than one if the output was
+     * split into parts
+     */
+    public List<File> getOutputFiles() {
+        return outputFiles;
+    }
+
+    public void addOutputFile(File f) {
+        this.outputFiles.add(f);
+    }
+
+    /**
+     * @return a description of each source that was skipped, and why
+     */
+    public List<String> getRejectedSources() {
+        return rejectedSources;
+    }
+
+    public void addRejectedSource(String description) {
+        this.rejectedSources.add(description);
+    }
+
+    /**
+     * @return the validation result of each source PDF, in page order
+     */
+    public List<SourceValidation> getValidations() {
+        return validations;
+    }
+
+    public void addValidation(SourceValidation validation) {
+        this.validations.add(validation);
+    }
+
+    /**
+     * @return a description of each page that was dropped or made to share
+     * the content of an earlier identical page, and which page that was
+     */
+    public List<String> getDuplicatePages() {
+        return duplicatePages;
+    }
+
+    public void addDuplicatePage(String description) {
+        this.duplicatePages.add(description);
+    }
+
+    public int getSourcesMerged() {
+        return sourcesMerged;
+    }
+
+    public void setSourcesMerged(int sourcesMerged) {
+        this.sourcesMerged = sourcesMerged;
+    }
+
+    public int getPagesWritten() {
+        return pagesWritten;
+    }
+
+    public void setPagesWritten(int pagesWritten) {
+        this.pagesWritten = pagesWritten;
+    }
+
+    public int getImagesOptimised() {
+        return imagesOptimised;
+    }
+
+    public long getImageBytesSaved() {
+        return imageBytesSaved;
+    }
+
+    /**
+     * @return total time spent downsampling and re-encoding, summed across
+     * threads
+     */
+    public long getImageMillis() {
+        return imageMillis;
+    }
+
+    /**
+     * Records one downsampled image
+     *
+     * @param bytesSaved reduction in the encoded size of the image
+     * @param millis time taken to decode, scale and re-encode it
+     */
+    public synchronized void addOptimisedImage(long bytesSaved, long millis) {
+        this.imagesOptimised++;
+        this.imageBytesSaved += bytesSaved;
+        this.imageMillis += millis;
+    }
+
+    /**
+     * @return true if the merge cached its streams in temporary files, to
+     * stay within the heap budget
+     */
+    public boolean isSpilledToDisk() {
+        return spilledToDisk;
+    }
+
+    public void setSpilledToDisk(boolean spilledToDisk) {
+        this.spilledToDisk = spilledToDisk;
+    }
+
+    /**
+     * @return time the merge waited for other jobs to free up heap
+     */
+    public long getQueuedMillis() {
+        return queuedMillis;
+    }
+
+    public void setQueuedMillis(long queuedMillis) {
+        this.queuedMillis = queuedMillis;
+    }
+
+    /**
+     * @return why the merge failed, or null if it didn't fail or was
+     * cancelled; sources rejected on the way are listed separately
+     */
+    public String getFailure() {
+        return failure;
+    }
+
+    public void setFailure(String failure) {
+        this.failure = failure;
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.primitive;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * A data transfer object to describe one source document that need not be a
+ * file on disk: exactly one of the file, stream, channel or buffer is set. A
+ * stream or channel is read to the end during the merge, but not closed. The
+ * name is used in reports, and its extension to tell what type of document
+ * it is, as for files.
+ *
+ * @author pmreid
+ */
+public class PDFSource {
+
+    private String name;
+    private File file;
+    private InputStream stream;
+    private ReadableByteChannel channel;
+    private ByteBuffer buffer;
+
+    public PDFSource() {
+    }
+
+    public PDFSource(File file) {
+        this.name = file.getName();
+        this.file = file;
+    }
+
+    public PDFSource(String name, InputStream stream) {
+        this.name = name;
+        this.stream = stream;
+    }
+
+    public PDFSource(String name, ReadableByteChannel channel) {
+        this.name = name;
+        this.channel = channel;
+    }
+
+    /**
+     * @param name name of the document, eg "upload.pdf"
+     * @param buffer the whole document, from its position to its limit; it is
+     * used in place, not copied
+     */
+    public PDFSource(String name, ByteBuffer buffer) {
+        this.name = name;
+        this.buffer = buffer;
+    }
+
+    public PDFSource(String name, byte[] bytes) {
+        this(name, ByteBuffer.wrap(bytes));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public void setFile(File file) {
+        this.file = file;
+    }
+
+    public InputStream getStream() {
+        return stream;
+    }
+
+    public void setStream(InputStream stream) {
+        this.stream = stream;
+    }
+
+    public ReadableByteChannel getChannel() {
+        return channel;
+    }
+
+    public void setChannel(ReadableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    public void setBuffer(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.primitive;
+
+import java.io.File;
+
+/**
+ * A data transfer object to store the result of a pre-flight index of a single
+ * source file
+ *
+ * @author pmreid
+ */
+public class SourceInfo {
+
+    public static final int PAGES_UNKNOWN = -1;
+
+    private File file;
+    private boolean valid;
+    private boolean pdf;
+    private boolean encrypted;
+    private String pdfVersion;
+    private int pageCount;
+    private long byteSize;
+    private long lastModified;
+    private long estimatedCost;
+    private String errorMessage;
+    private String warning;
+
+    public SourceInfo() {
+        this.valid = false;
+        this.pageCount = PAGES_UNKNOWN;
+    }
+
+    public SourceInfo(File f) {
+        this();
+        this.file = f;
+        this.byteSize = f.length();
+        this.lastModified = f.lastModified();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public void setFile(File file) {
+        this.file = file;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public void setValid(boolean valid) {
+        this.valid = valid;
+    }
+
+    public boolean isPdf() {
+        return pdf;
+    }
+
+    public void setPdf(boolean pdf) {
+        this.pdf = pdf;
+    }
+
+    public boolean isEncrypted() {
+        return encrypted;
+    }
+
+    public void setEncrypted(boolean encrypted) {
+        this.encrypted = encrypted;
+    }
+
+    public String getPdfVersion() {
+        return pdfVersion;
+    }
+
+    public void setPdfVersion(String pdfVersion) {
+        this.pdfVersion = pdfVersion;
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    public void setPageCount(int pageCount) {
+        this.pageCount = pageCount;
+    }
+
+    public long getByteSize() {
+        return byteSize;
+    }
+
+    public void setByteSize(long byteSize) {
+        this.byteSize = byteSize;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public long getEstimatedCost() {
+        return estimatedCost;
+    }
+
+    public void setEstimatedCost(long estimatedCost) {
+        this.estimatedCost = estimatedCost;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    /**
+     * @return a problem that doesn't stop the source being merged, eg signs
+     * that it is truncated, or null
+     */
+    public String getWarning() {
+        return warning;
+    }
+
+    public void setWarning(String warning) {
+        this.warning = warning;
+    }
+
+    /**
+     * Simple helper method to decide whether this information still describes
+     * the file on disk
+     *
+     * @param f Populated Java File reference
+     * @return true if the size and modification time are unchanged
+     */
+    public boolean isCurrentFor(File f) {
+        return f.lastModified() == this.lastModified && f.length() == this.byteSize;
+    }
+
+}
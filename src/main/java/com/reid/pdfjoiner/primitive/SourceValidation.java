@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.primitive;
+
+import java.io.File;
+
+/**
+ * A data transfer object to store the result of the structural validation of
+ * a single source PDF, and what was done about any damage
+ *
+ * @author pmreid
+ */
+public class SourceValidation {
+
+    // parsed cleanly:
+    public static final int STATUS_VALID = 1;
+    // only parsed leniently; a rebuilt copy is merged instead:
+    public static final int STATUS_REPAIRED = 2;
+    // could not be parsed at all; left out of the merge:
+    public static final int STATUS_QUARANTINED = 3;
+
+    private File file;
+    private int status;
+    private String problem;
+    private File repairedFile;
+    private File quarantinedFile;
+
+    public SourceValidation() {
+        this.status = STATUS_VALID;
+    }
+
+    public SourceValidation(File f) {
+        this();
+        this.file = f;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public void setFile(File file) {
+        this.file = file;
+    }
+
+    /**
+     * @return reference to SourceValidation.STATUS_
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    /**
+     * @return description of the damage found, or null if there was none
+     */
+    public String getProblem() {
+        return problem;
+    }
+
+    public void setProblem(String problem) {
+        this.problem = problem;
+    }
+
+    /**
+     * @return the rebuilt copy to merge in place of the source, if it was
+     * repaired
+     */
+    public File getRepairedFile() {
+        return repairedFile;
+    }
+
+    public void setRepairedFile(File repairedFile) {
+        this.repairedFile = repairedFile;
+    }
+
+    /**
+     * @return the copy of the source kept for inspection, if it was
+     * quarantined
+     */
+    public File getQuarantinedFile() {
+        return quarantinedFile;
+    }
+
+    public void setQuarantinedFile(File quarantinedFile) {
+        this.quarantinedFile = quarantinedFile;
+    }
+
+}
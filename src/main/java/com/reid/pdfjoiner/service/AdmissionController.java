@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service;
+
+import com.reid.pdfjoiner.primitive.Admission;
+import com.reid.pdfjoiner.primitive.MergeOptions;
+
+/**
+ * Interface for sharing a fixed heap budget between merge jobs running at the
+ * same time, so that together they can never exhaust the heap
+ *
+ * @author pmreid
+ */
+public interface AdmissionController {
+
+    /**
+     * Estimates the job's peak heap use and reserves it from the budget,
+     * waiting while running jobs hold too much of it. A job too big to hold
+     * in memory, or one that has waited too long, is admitted with its
+     * streams spilled to disk instead, for a much smaller reservation.
+     *
+     * @param sourceBytes total size of the job's sources
+     * @param pages total number of pages in the sources
+     * @param options populated MergeOptions DTO
+     * @return populated Admission DTO, to be released when the job ends
+     * @throws InterruptedException if the job is cancelled while waiting
+     */
+    public Admission admit(long sourceBytes, int pages, MergeOptions options) throws InterruptedException;
+
+    /**
+     * Returns the job's reservation to the budget, and uses what the job
+     * really needed to improve later estimates
+     *
+     * @param admission Admission DTO returned by admit()
+     * @param observedCacheBytes peak size of the job's in-memory stream cache,
+     * or -1 if it was not measured
+     */
+    public void release(Admission admission, long observedCacheBytes);
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Service provider interface for document-to-PDF converters. Backends in
+ * optional modules are found with java.util.ServiceLoader, so they must be
+ * public, have a public no-argument constructor and be listed in
+ * META-INF/services/com.reid.pdfjoiner.service.ConverterBackend.
+ *
+ * @author pmreid
+ */
+public interface ConverterBackend {
+
+    /**
+     * @return short name for logs and reports, eg "LibreOffice"
+     */
+    public String getName();
+
+    /**
+     * Simple helper method to check whether this backend can convert a type
+     * of document at all
+     *
+     * @param fileType PDFManager.TYPE_ reference
+     * @return true if supported
+     */
+    public boolean supports(int fileType);
+
+    /**
+     * Simple helper method to check whether this backend can be used on this
+     * host, eg whether the program it drives is installed. Should be cheap
+     * after the first call.
+     *
+     * @return true if available
+     */
+    public boolean isAvailable();
+
+    /**
+     * Rough cost of a conversion, used to choose between backends that can all
+     * convert a document; lower is preferred
+     *
+     * @return estimated milliseconds per MB of input
+     */
+    public double getCostPerMegabyte();
+
+    /**
+     * Converts a document to PDF
+     *
+     * @param input Populated Java File reference of source document
+     * @param fileType PDFManager.TYPE_ reference of the source document
+     * @param output Populated Java File reference of the PDF to write
+     * @throws IOException if the conversion fails
+     */
+    public void convert(File input, int fileType, File output) throws IOException;
+
+}
@@ -18,6 +18,7 @@ package com.reid.pdfjoiner.service;
 
 import com.reid.pdfjoiner.primitive.ConversionResult;
 import java.io.File;
+import java.util.List;
 
 /**
  * Interface for detection and conversion of file formats to add to the PDF
@@ -35,6 +36,23 @@ public interface DocDetectorConverter {
      */
     public boolean checkFileIsPDF(File file);
 
+    /**
+     * Detects what type of document the given file is
+     *
+     * @param file Populated Java File reference
+     * @return PDFManager.TYPE_ reference, or -1 if unknown
+     */
+    public int detectFileType(File file);
+
+    /**
+     * Simple helper method to check whether any converter backend available on
+     * this host can convert a type of document
+     *
+     * @param fileType PDFManager.TYPE_ reference
+     * @return true if it can be converted
+     */
+    public boolean canConvert(int fileType);
+
     /**
      * Will detect what type of file is supplied and attempt to convert to a PDF
      * if possible
@@ -45,4 +63,38 @@ public interface DocDetectorConverter {
      */
     public ConversionResult attemptConversion(File file);
 
+    /**
+     * As attemptConversion(File), for several files at once. The files are
+     * converted in parallel, so backends that can take more than one document
+     * at a time, such as a conversion farm, are kept busy.
+     *
+     * @param files Populated Java File references of source documents
+     * @return ConversionResult DTOs, in the same order as the files
+     */
+    public List<ConversionResult> attemptConversions(List<File> files);
+
+    /**
+     * As attemptConversions(List), telling the listener about each result as
+     * soon as it is ready, so that finished work can be recorded before the
+     * rest is done
+     *
+     * @param files Populated Java File references of source documents
+     * @param listener called on a conversion thread for each file; may be
+     * null
+     * @return ConversionResult DTOs, in the same order as the files
+     */
+    public List<ConversionResult> attemptConversions(List<File> files, ConversionListener listener);
+
+    /**
+     * Callback for results of attemptConversions
+     */
+    public interface ConversionListener {
+
+        /**
+         * @param file source document
+         * @param result ConversionResult DTO for it, successful or not
+         */
+        public void converted(File file, ConversionResult result);
+    }
+
 }
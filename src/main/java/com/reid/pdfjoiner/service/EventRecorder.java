@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service;
+
+/**
+ * Service provider interface for low-overhead timing events, one for each
+ * stage of a merge. The JDK Flight Recorder implementation is in an optional
+ * module built for Java 11 and later; it is found with
+ * java.util.ServiceLoader, so it must be public, have a public no-argument
+ * constructor and be listed in
+ * META-INF/services/com.reid.pdfjoiner.service.EventRecorder. Where it can't
+ * be loaded, eg on Java 8, events cost next to nothing and go nowhere.
+ *
+ * @author pmreid
+ */
+public interface EventRecorder {
+
+    // working out the type and page count of a source:
+    public static final int STAGE_DETECTION = 1;
+    // converting a document to PDF:
+    public static final int STAGE_CONVERSION = 2;
+    // importing the pages of one source into the output:
+    public static final int STAGE_PAGE_IMPORT = 3;
+    // saving one output file:
+    public static final int STAGE_OUTPUT_WRITE = 4;
+
+    /**
+     * Starts timing one stage for one source or output file. Fill in what is
+     * known about it, then call record() once the stage is over.
+     *
+     * @param stage reference to EventRecorder.STAGE_
+     * @return Stage to fill in; never null
+     */
+    public Stage begin(int stage);
+
+    /**
+     * One timed stage. Fields that don't apply to the stage are ignored.
+     */
+    public interface Stage {
+
+        /**
+         * @param source path or name of the source or output file
+         */
+        public void setSource(String source);
+
+        /**
+         * @param bytes size of the source, or of the output written
+         */
+        public void setByteSize(long bytes);
+
+        /**
+         * @param pages pages read or written
+         */
+        public void setPageCount(int pages);
+
+        /**
+         * @param fileType PDFManager.TYPE_ reference
+         */
+        public void setDocumentType(int fileType);
+
+        /**
+         * @param backend name of the converter backend used
+         */
+        public void setBackend(String backend);
+
+        /**
+         * @param cacheHit true if the result was reused rather than worked
+         * out
+         */
+        public void setCacheHit(boolean cacheHit);
+
+        /**
+         * @param success true if the stage did what it set out to
+         */
+        public void setSuccess(boolean success);
+
+        /**
+         * Ends the stage and records it, if recording is on and it took
+         * longer than the configured threshold
+         */
+        public void record();
+    }
+
+}
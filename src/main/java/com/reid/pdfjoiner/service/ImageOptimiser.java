@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service;
+
+import com.reid.pdfjoiner.primitive.MergeOptions;
+import com.reid.pdfjoiner.primitive.MergeReport;
+import java.io.IOException;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+/**
+ * Interface for shrinking the images embedded in a merged document before it
+ * is written out
+ *
+ * @author pmreid
+ */
+public interface ImageOptimiser {
+
+    /**
+     * Downsamples every image in the document whose resolution is above the
+     * target in the options, replacing it in place. Does nothing if no target
+     * resolution is set.
+     *
+     * @param doc document to optimise; must not be used by other threads
+     * meanwhile
+     * @param options populated MergeOptions DTO
+     * @param report MergeReport DTO to record the savings in
+     * @throws IOException on read failure
+     */
+    public void optimise(PDDocument doc, MergeOptions options, MergeReport report) throws IOException;
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service;
+
+import com.reid.pdfjoiner.primitive.MergeOptions;
+import com.reid.pdfjoiner.primitive.MergeReport;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Interface for keeping the outputs of finished merge jobs, so that a job
+ * with the same sources in the same order and the same options can be
+ * answered without merging again
+ *
+ * @author pmreid
+ */
+public interface JobCache {
+
+    /**
+     * Works out the cache key of a job from the content of its sources, in
+     * order, and its options. The names and locations of the sources don't
+     * matter.
+     *
+     * @param sources List of File objects representing the sources, in page
+     * order
+     * @param options populated MergeOptions DTO
+     * @return hex key
+     * @throws IOException if a source cannot be read
+     */
+    public String computeKey(List<File> sources, MergeOptions options) throws IOException;
+
+    /**
+     * Looks for the key of a cached result of the same sources, by path, size
+     * and modification time, and the same options. No source is read, so a
+     * job costs no more than listing its files; like the content hashes, this
+     * trusts that a file whose size and time haven't changed hasn't either.
+     *
+     * @param sources List of File objects representing the sources, in page
+     * order
+     * @param options populated MergeOptions DTO
+     * @return hex key, as computeKey would give, or null if there is no such
+     * result
+     */
+    public String findKey(List<File> sources, MergeOptions options);
+
+    /**
+     * Puts a cached result in place of a merge, if there is one
+     *
+     * @param key key from computeKey
+     * @param dest destination the job would have written to
+     * @param options populated MergeOptions DTO
+     * @param report MergeReport DTO to record the output files in
+     * @return true if the output files were restored from the cache; false if
+     * the job must be run
+     */
+    public boolean restore(String key, File dest, MergeOptions options, MergeReport report);
+
+    /**
+     * Saves the output of a finished job, evicting older results if the cache
+     * is over its size limit. A job that rejected any sources is not saved,
+     * as a restored result would not report them. Failures are logged, not
+     * thrown, as the job itself has succeeded.
+     *
+     * @param key key from computeKey
+     * @param sources the sources the key was computed from, so that findKey
+     * can find the result again
+     * @param options populated MergeOptions DTO the key was computed with
+     * @param report MergeReport DTO of the finished job
+     */
+    public void store(String key, List<File> sources, MergeOptions options, MergeReport report);
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service;
+
+import com.reid.pdfjoiner.primitive.SourceValidation;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Interface for the journal of a long-running merge job. It records each
+ * stage of the job as it finishes, with the intermediate files it produced and
+ * their checksums, so a job that is run again after a failure only redoes the
+ * work that wasn't finished, or whose files have since changed. Sources are
+ * identified by their content, not their names.
+ *
+ * @author pmreid
+ */
+public interface JobJournal extends Closeable {
+
+    /**
+     * Looks up an earlier conversion of a source document
+     *
+     * @param source Populated Java File reference of source document
+     * @return the converted PDF, or null if there isn't one or it fails its
+     * checksum
+     */
+    public File getConversion(File source);
+
+    /**
+     * Keeps a copy of a converted PDF in the journal
+     *
+     * @param source Populated Java File reference of source document
+     * @param converted the PDF it was converted to
+     * @throws IOException on write failure
+     */
+    public void recordConversion(File source, File converted) throws IOException;
+
+    /**
+     * Looks up an earlier validation of a source PDF
+     *
+     * @param source Populated Java File reference of source PDF
+     * @return SourceValidation DTO, with the repaired file in the journal if
+     * it was repaired, or null if there isn't one or its file fails its
+     * checksum
+     */
+    public SourceValidation getValidation(File source);
+
+    /**
+     * Records the outcome of validating a source; quarantined sources are not
+     * recorded, so they are looked at again
+     *
+     * @param validation populated SourceValidation DTO
+     * @throws IOException on write failure
+     */
+    public void recordValidation(SourceValidation validation) throws IOException;
+
+    /**
+     * @param number batch number, starting at 1
+     * @return where the merged batch should be written
+     */
+    public File getBatchFile(int number);
+
+    /**
+     * Looks up an earlier merged batch
+     *
+     * @param number batch number, starting at 1
+     * @param inputs checksum of the batch's sources, in order
+     * @return the merged batch, or null if there isn't one for the same
+     * sources or it fails its checksum
+     */
+    public File getBatch(int number, String inputs);
+
+    /**
+     * Records a batch written to getBatchFile(number)
+     *
+     * @param number batch number, starting at 1
+     * @param inputs checksum of the batch's sources, in order
+     * @throws IOException on write failure
+     */
+    public void recordBatch(int number, String inputs) throws IOException;
+
+    /**
+     * Deletes the journal and everything in it, once the job has succeeded
+     */
+    public void complete();
+
+    /**
+     * Closes the journal, keeping it for the next run
+     */
+    @Override
+    public void close();
+
+}
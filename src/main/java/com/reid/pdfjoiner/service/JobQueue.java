@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service;
+
+import com.reid.pdfjoiner.primitive.MergeJob;
+import com.reid.pdfjoiner.primitive.MergeOptions;
+import java.io.File;
+import java.util.List;
+
+/**
+ * Interface for a queue of merge jobs that run in the background, so that
+ * one session can merge many times without restarting
+ *
+ * @author pmreid
+ */
+public interface JobQueue {
+
+    /**
+     * Queues a merge. The source list is copied, so the caller is free to
+     * change it for the next job straight away.
+     *
+     * @param dest Populated Java File reference of the output PDF
+     * @param sources source files, in order
+     * @param options how to merge
+     * @return the queued job
+     * @throws IllegalArgumentException if there are no sources, the output
+     * can't be written, or another job still queued or running writes to the
+     * same output
+     */
+    public MergeJob submit(File dest, List<File> sources, MergeOptions options);
+
+    /**
+     * Cancels a job. A queued job never starts; a running one is interrupted
+     * and stops at the next source, without saving the output in progress.
+     *
+     * @param job a job from this queue
+     * @return false if the job had already finished
+     */
+    public boolean cancel(MergeJob job);
+
+    /**
+     * @return a snapshot of the jobs in the session, oldest first
+     */
+    public List<MergeJob> getJobs();
+
+    /**
+     * @return true if any job is queued or running
+     */
+    public boolean hasActiveJobs();
+
+    /**
+     * Forgets the jobs that have finished, failed or been cancelled
+     */
+    public void clearFinished();
+
+    /**
+     * Registers a callback for whenever a job is added or removed or changes
+     * status
+     *
+     * @param listener called on whichever thread made the change
+     */
+    public void addChangeListener(Runnable listener);
+
+    /**
+     * Cancels every job and stops the worker threads
+     */
+    public void shutdown();
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Interface for re-writing a finished PDF in linearized ("Fast Web View")
+ * form: first-page objects at the front, followed by hint tables, so that a
+ * viewer can display page 1 using byte-range requests
+ *
+ * @author pmreid
+ */
+public interface Linearizer {
+
+    /**
+     * Simple helper method to check whether linearization can be done on this
+     * host
+     *
+     * @return true if available
+     */
+    public boolean isAvailable();
+
+    /**
+     * Writes a linearized copy of the input file
+     *
+     * @param input Populated Java File reference of a complete PDF
+     * @param output Populated Java File reference of the linearized PDF to
+     * create; must not be the same file as the input
+     * @throws IOException if linearization fails
+     */
+    public void linearize(File input, File output) throws IOException;
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Interface for putting output files in place so that nobody ever sees a
+ * half-written file at the destination: content is written to a temporary
+ * file next to it and renamed over it only once complete
+ *
+ * @author pmreid
+ */
+public interface OutputWriter {
+
+    /**
+     * Something that can write itself to a stream, eg a PDDocument being saved
+     */
+    public interface Content {
+
+        public void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Writes the content to a temporary file and then renames it over the
+     * target. If writing fails, the target is left as it was.
+     *
+     * @param target Populated Java File reference of the final destination
+     * @param content what to write
+     * @throws IOException on write failure
+     */
+    public void write(File target, Content content) throws IOException;
+
+    /**
+     * Renames an already complete file over the target, eg the output of an
+     * external tool
+     *
+     * @param complete Populated Java File reference of a finished file, in the
+     * same directory as the target
+     * @param target Populated Java File reference of the final destination
+     * @throws IOException on failure
+     */
+    public void install(File complete, File target) throws IOException;
+
+}
@@ -16,7 +16,11 @@
  */
 package com.reid.pdfjoiner.service;
 
+import com.reid.pdfjoiner.primitive.MergeOptions;
+import com.reid.pdfjoiner.primitive.MergeReport;
+import com.reid.pdfjoiner.primitive.PDFSource;
 import java.io.File;
+import java.io.OutputStream;
 import java.util.List;
 
 /**
@@ -25,6 +29,7 @@ import java.util.List;
  */
 public interface PDFManager {
 
+    public static final int TYPE_PDF = 0;
     public static final int TYPE_PPTX = 1;
     public static final int TYPE_PPT = 2;
     public static final int TYPE_DOCX = 3;
@@ -43,6 +48,52 @@ public interface PDFManager {
      */
     public boolean joinPDFs(File dest, List<File> sources);
 
+    /**
+     * As joinPDFs(File, List), with optional settings for the merge
+     *
+     * @param dest Validated File object to use as destination
+     * @param sources Validated List of File objects representing the source
+     * PDFs, in page order.
+     * @param options populated MergeOptions DTO
+     * @return true on success
+     */
+    public boolean joinPDFs(File dest, List<File> sources, MergeOptions options);
+
+    /**
+     * As joinPDFs(File, List, MergeOptions), for sources that may be streams,
+     * channels or buffers rather than files. Each stream is read once, into
+     * memory up to the options' stream memory limit and into a temporary file
+     * beyond it. Problems are recorded in the report and the log rather than
+     * shown to the user. If every source is a file, this is the same as
+     * joinPDFs.
+     *
+     * @param dest Validated File object to use as destination
+     * @param sources populated PDFSource DTOs, in page order
+     * @param options populated MergeOptions DTO
+     * @return true on success
+     */
+    public boolean joinSources(File dest, List<PDFSource> sources, MergeOptions options);
+
+    /**
+     * As joinSources(File, List, MergeOptions), writing the merged PDF to a
+     * stream, eg an HTTP response, which is flushed but not closed. The
+     * output can't be split into parts.
+     *
+     * @param out stream to write the merged PDF to
+     * @param sources populated PDFSource DTOs, in page order
+     * @param options populated MergeOptions DTO, without part limits
+     * @return true on success
+     */
+    public boolean joinSources(OutputStream out, List<PDFSource> sources, MergeOptions options);
+
+    /**
+     * Returns what the most recent call to joinPDFs did. Each merge job should
+     * use its own PDFManager if jobs run concurrently.
+     *
+     * @return populated MergeReport DTO, or null if no merge has run
+     */
+    public MergeReport getLastReport();
+
     /**
      * Simple helper method to launch the desktop's default PDF viewer program
      * and view the newly-created PDF file
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Interface for fingerprinting the pages of source PDFs by their content, so
+ * that identical pages can be found across documents
+ *
+ * @author pmreid
+ */
+public interface PageFingerprinter {
+
+    /**
+     * Works out a fingerprint for every page from its content streams,
+     * resources, page boxes and rotation. Pages that look the same but are
+     * built differently, eg with fonts subset differently, get different
+     * fingerprints.
+     *
+     * @param pdf Populated Java File reference of source PDF
+     * @return one fingerprint per page, in page order
+     * @throws IOException if the PDF can't be read
+     */
+    public List<String> fingerprint(File pdf) throws IOException;
+
+    /**
+     * Fingerprints several PDFs in parallel
+     *
+     * @param pdfs List of File objects representing the source PDFs
+     * @return fingerprints of each PDF, in the same order; null for a PDF that
+     * could not be read
+     */
+    public List<List<String>> fingerprintAll(List<File> pdfs);
+
+}
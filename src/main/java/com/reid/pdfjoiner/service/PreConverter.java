@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service;
+
+import com.reid.pdfjoiner.primitive.ConversionResult;
+import java.io.File;
+import java.util.Collection;
+
+/**
+ * Interface for converting non-PDF sources in the background as soon as they
+ * are added, so that a later join can reuse the results instead of waiting
+ * for the conversions
+ *
+ * @author pmreid
+ */
+public interface PreConverter {
+
+    /**
+     * Queues each file that isn't a PDF for conversion at low priority,
+     * unless it is already queued or converted
+     *
+     * @param files source files, in any order
+     */
+    public void convertAhead(Collection<File> files);
+
+    /**
+     * Cancels any queued or running conversions of the given files, eg
+     * because they have been removed from the source list, and discards their
+     * results
+     *
+     * @param files source files that are no longer wanted
+     */
+    public void cancel(Collection<File> files);
+
+    /**
+     * Hands over the background conversion of a file. A conversion that is
+     * running is waited for; one that is still queued is withdrawn, so the
+     * caller can convert the file itself rather than wait behind the queue.
+     * The result stays available for later joins.
+     *
+     * @param file Populated Java File reference of source document
+     * @return ConversionResult DTO, or null if there is no usable conversion,
+     * eg because the file was never queued or has changed since
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public ConversionResult claimResult(File file) throws InterruptedException;
+
+    /**
+     * Stops the background conversion threads
+     */
+    public void shutdown();
+
+}
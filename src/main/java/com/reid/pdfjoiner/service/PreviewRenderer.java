@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.Collection;
+
+/**
+ * Interface for rendering small first-page previews of source files in the
+ * background
+ *
+ * @author pmreid
+ */
+public interface PreviewRenderer {
+
+    /**
+     * Returns a preview that has already been rendered, without doing any I/O;
+     * safe to call from the Swing event dispatch thread
+     *
+     * @param file Populated Java File reference of source document
+     * @return the preview image, or null if it is not (yet) available
+     */
+    public BufferedImage getCachedPreview(File file);
+
+    /**
+     * Queues the file for rendering in the background, unless it is already
+     * cached or queued
+     *
+     * @param file Populated Java File reference of source document
+     * @param onReady called on a background thread once the preview is in the
+     * cache
+     */
+    public void requestPreview(File file, Runnable onReady);
+
+    /**
+     * Cancels any queued or running renders for files not in the given
+     * collection, eg because they have been scrolled out of view
+     *
+     * @param wanted files whose previews are still needed
+     */
+    public void retainOnly(Collection<File> wanted);
+
+    /**
+     * Stops the background rendering threads
+     */
+    public void shutdown();
+
+}
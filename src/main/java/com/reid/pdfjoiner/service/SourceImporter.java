@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Interface for importing every supported source file found under a
+ * directory tree
+ *
+ * @author pmreid
+ */
+public interface SourceImporter {
+
+    // "page2" sorts before "page10":
+    public static final int SORT_NATURAL = 1;
+    // plain alphabetical, ignoring case:
+    public static final int SORT_NAME = 2;
+    // oldest first:
+    public static final int SORT_MODIFIED = 3;
+
+    /**
+     * Walks the directory tree, skipping hidden and unsupported files, and
+     * returns the sources found in the requested order
+     *
+     * @param root Populated Java File reference of the top directory
+     * @param sortOrder reference to SourceImporter.SORT_
+     * @return List of source files, sorted
+     * @throws IOException if the top directory cannot be read
+     */
+    public List<File> importDirectory(File root, int sortOrder) throws IOException;
+
+    /**
+     * Walks the directory tree, skipping hidden and unsupported files, and
+     * returns the sources found in a custom order
+     *
+     * @param root Populated Java File reference of the top directory
+     * @param order comparator used to sort the sources
+     * @return List of source files, sorted
+     * @throws IOException if the top directory cannot be read
+     */
+    public List<File> importDirectory(File root, Comparator<File> order) throws IOException;
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service;
+
+import com.reid.pdfjoiner.primitive.SourceInfo;
+import java.io.File;
+import java.util.List;
+
+/**
+ * Interface for a fast pre-flight check of source files, reading only the
+ * header, trailer and page tree root of each PDF rather than parsing the whole
+ * document
+ *
+ * @author pmreid
+ */
+public interface SourceIndexer {
+
+    /**
+     * Indexes a single source file, re-using a cached result if the file has
+     * not changed since it was last indexed
+     *
+     * @param file Populated Java File reference of source document
+     * @return SourceInfo DTO describing the source
+     */
+    public SourceInfo indexSource(File file);
+
+    /**
+     * Indexes a list of source files in parallel
+     *
+     * @param sources List of File objects representing the sources, in page
+     * order
+     * @return List of SourceInfo DTOs, in the same order as the sources
+     */
+    public List<SourceInfo> indexSources(List<File> sources);
+
+    /**
+     * Returns the cached result for a file without doing any I/O
+     *
+     * @param file Populated Java File reference of source document
+     * @return SourceInfo DTO, or null if the file has not been indexed or has
+     * changed since
+     */
+    public SourceInfo getCachedInfo(File file);
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service;
+
+import com.reid.pdfjoiner.primitive.SourceValidation;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Interface for checking that source PDFs are structurally sound before any
+ * merge work is done, repairing them where possible
+ *
+ * @author pmreid
+ */
+public interface SourceValidator {
+
+    /**
+     * Parses a PDF strictly and reads every page; if that fails, tries again
+     * leniently and writes a repaired copy; if that fails too, quarantines it
+     *
+     * @param pdf Populated Java File reference of source PDF
+     * @return populated SourceValidation DTO
+     */
+    public SourceValidation validate(File pdf);
+
+    /**
+     * Validates several PDFs in parallel
+     *
+     * @param pdfs List of File objects representing the source PDFs
+     * @return List of SourceValidation DTOs, in the same order
+     */
+    public List<SourceValidation> validateAll(List<File> pdfs);
+
+    /**
+     * Writes a single-page PDF explaining that a source was left out, to stand
+     * in for it in the output
+     *
+     * @param source Populated Java File reference of the missing source
+     * @param reason why it was left out
+     * @return Populated Java File reference of temporary placeholder PDF
+     * @throws IOException on write failure
+     */
+    public File createPlaceholder(File source, String reason) throws IOException;
+
+}
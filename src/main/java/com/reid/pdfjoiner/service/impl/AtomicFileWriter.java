@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import com.reid.pdfjoiner.primitive.MergeOptions;
+import com.reid.pdfjoiner.service.OutputWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes through a FileChannel with a large buffer, which is much kinder to
+ * network storage than the 8KB writes PDFBox makes on its own, to a hidden
+ * temporary file in the destination directory. The temporary file is forced
+ * to disk as the durability setting asks and then atomically renamed into
+ * place; with full durability the directory is forced too, so that the rename
+ * itself survives a crash.
+ *
+ * @author pmreid
+ */
+public class AtomicFileWriter implements OutputWriter {
+
+    private static final Logger LOGGER = Logger.getLogger(AtomicFileWriter.class.getName());
+
+    private final int bufferSize;
+    private final int durability;
+
+    /**
+     * @param bufferSize size of the write buffer, in bytes
+     * @param durability reference to MergeOptions.DURABILITY_
+     */
+    public AtomicFileWriter(int bufferSize, int durability) {
+        this.bufferSize = bufferSize;
+        this.durability = durability;
+    }
+
+    @Override
+    public void write(File target, Content content) throws IOException {
+        Path tmp = createTemp(target);
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                try (ChannelOutputStream out = new ChannelOutputStream(channel, bufferSize)) {
+                    content.writeTo(out);
+                }
+                force(channel);
+            }
+            move(tmp, target);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public void install(File complete, File target) throws IOException {
+        if (durability > MergeOptions.DURABILITY_NONE) {
+            try (FileChannel channel = FileChannel.open(complete.toPath(), StandardOpenOption.WRITE)) {
+                force(channel);
+            }
+        }
+        move(complete.toPath(), target);
+    }
+
+    /**
+     * Renames a file that has already been forced as the durability setting
+     * asks over the target, then makes the rename itself durable if asked
+     */
+    private void move(Path complete, File target) throws IOException {
+        try {
+            Files.move(complete, target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            // some network file systems can't rename over an existing file atomically
+            LOGGER.log(Level.WARNING, "Atomic rename not supported for {0}; replacing it non-atomically", target);
+            Files.move(complete, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (durability == MergeOptions.DURABILITY_FULL) {
+            forceDirectory(target.getAbsoluteFile().getParentFile().toPath());
+        }
+    }
+
+    /**
+     * Creates an empty hidden file next to the target to write it in. Unlike
+     * Files.createTempFile, which makes the file readable by its owner only,
+     * this leaves the permissions to the umask or the directory's defaults,
+     * so the file ends up with the same permissions as any other new file
+     * once it is renamed into place.
+     *
+     * @param target Java File reference of the final destination
+     * @return path of the new, empty file
+     * @throws IOException if it can't be created
+     */
+    static Path createTemp(File target) throws IOException {
+        Path dir = target.getAbsoluteFile().getParentFile().toPath();
+        while (true) {
+            String suffix = Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36);
+            Path tmp = dir.resolve("." + target.getName() + "." + suffix + ".tmp");
+            try {
+                Files.newByteChannel(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE).close();
+                return tmp;
+            } catch (FileAlreadyExistsException ex) {
+                // try another name
+            }
+        }
+    }
+
+    private void force(FileChannel channel) throws IOException {
+        if (durability > MergeOptions.DURABILITY_NONE) {
+            channel.force(durability == MergeOptions.DURABILITY_FULL);
+        }
+    }
+
+    /**
+     * Simple helper method to make a rename durable. Not every platform can
+     * open a directory (Windows can't), in which case this does nothing.
+     */
+    private static void forceDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ex) {
+            LOGGER.log(Level.FINE, "Could not force directory " + dir, ex);
+        }
+    }
+
+    /**
+     * An OutputStream that fills a buffer and hands it to the channel in one
+     * write each time it is full
+     */
+    private static class ChannelOutputStream extends OutputStream {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        ChannelOutputStream(FileChannel channel, int bufferSize) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (!buffer.hasRemaining()) {
+                    drain();
+                }
+                int n = Math.min(len, buffer.remaining());
+                buffer.put(b, off, n);
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            drain();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // the channel belongs to the caller, which forces it after this
+            drain();
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
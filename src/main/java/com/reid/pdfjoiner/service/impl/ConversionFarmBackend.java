@@ -0,0 +1,395 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import com.reid.pdfjoiner.primitive.FarmNodeStatus;
+import com.reid.pdfjoiner.service.ConverterBackend;
+import com.reid.pdfjoiner.service.PDFManager;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Converts documents on a farm of remote conversion servers, so conversion
+ * throughput is no longer limited to what one host's Office can do. The
+ * servers are listed, comma separated, in the "pdfjoiner.farm" system
+ * property, eg "http://conv1:9998,http://conv2:9998". They are spoken to with
+ * the documents4j remote conversion protocol: the document is POSTed with its
+ * MIME type as the Content-Type and the PDF comes back in the response body.
+ * That is plain HTTP, so HttpURLConnection is used rather than the
+ * documents4j client and its JAX-RS stack.
+ * <p>
+ * Each document goes to the healthy node with the fewest conversions in
+ * flight. A node that fails is marked down, and the document is retried on
+ * another node; a background health check (a GET of each node's URL) brings
+ * nodes back when they recover. A node that rejects the document itself, with
+ * a 4xx status, is not retried, as every node would do the same.
+ *
+ * @author pmreid
+ */
+public class ConversionFarmBackend implements ConverterBackend {
+
+    private static final Logger LOGGER = Logger.getLogger(ConversionFarmBackend.class.getName());
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final int HEALTH_TIMEOUT_MILLIS = 2000;
+    private static final int CONVERT_TIMEOUT_MILLIS = Integer.getInteger("pdfjoiner.farm.timeout", 300000);
+    private static final long HEALTH_CHECK_MILLIS = Long.getLong("pdfjoiner.farm.healthcheck", 10000);
+    // until a node has been measured, assume remote Office is a little quicker than a local LibreOffice:
+    private static final double DEFAULT_COST_PER_MB = 1000;
+    // weight of each new conversion in a node's latency:
+    private static final double LATENCY_WEIGHT = 0.2;
+    private static final String HEADER_JOB_PRIORITY = "Converter-Job-Priority";
+    private static final String JOB_PRIORITY = "1000";
+
+    // also the lock for every node's counters:
+    private final List<Node> nodes = new ArrayList<>();
+    private ScheduledExecutorService healthChecker;
+
+    public ConversionFarmBackend() {
+        this(System.getProperty("pdfjoiner.farm", ""));
+    }
+
+    /**
+     * @param urls comma separated base URLs of the conversion servers
+     */
+    public ConversionFarmBackend(String urls) {
+        for (String url : urls.split(",")) {
+            if (url.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                nodes.add(new Node(new URL(url.trim())));
+            } catch (MalformedURLException ex) {
+                LOGGER.log(Level.WARNING, "Ignoring conversion farm node with a bad URL: " + url, ex);
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Conversion farm";
+    }
+
+    @Override
+    public boolean supports(int fileType) {
+        return mimeType(fileType) != null;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        if (nodes.isEmpty()) {
+            return false;
+        }
+        startHealthChecks();
+        synchronized (nodes) {
+            for (Node node : nodes) {
+                if (node.healthy) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public double getCostPerMegabyte() {
+        double best = 0;
+        synchronized (nodes) {
+            for (Node node : nodes) {
+                if (node.healthy && node.millisPerMegabyte > 0 && (best == 0 || node.millisPerMegabyte < best)) {
+                    best = node.millisPerMegabyte;
+                }
+            }
+        }
+        return best > 0 ? best : DEFAULT_COST_PER_MB;
+    }
+
+    @Override
+    public void convert(File input, int fileType, File output) throws IOException {
+        String mimeType = mimeType(fileType);
+        if (mimeType == null) {
+            throw new IOException("The conversion farm cannot convert " + input.getName());
+        }
+        Set<Node> tried = new HashSet<>();
+        IOException lastFailure = null;
+        Node node;
+        while ((node = chooseNode(tried)) != null) {
+            tried.add(node);
+            try {
+                send(node, input, mimeType, output);
+                return;
+            } catch (DocumentRejectedException ex) {
+                throw ex;
+            } catch (IOException ex) {
+                lastFailure = ex;
+                markDown(node);
+                LOGGER.log(Level.WARNING, "Conversion node " + node.url + " failed on " + input.getName() + "; retrying on another node", ex);
+            }
+        }
+        throw new IOException("No conversion farm node could convert " + input.getName(), lastFailure);
+    }
+
+    /**
+     * Takes a snapshot of every node's health, load and latency
+     *
+     * @return List of populated FarmNodeStatus DTOs, in configured order
+     */
+    public List<FarmNodeStatus> getNodeStatus() {
+        List<FarmNodeStatus> status = new ArrayList<>();
+        synchronized (nodes) {
+            for (Node node : nodes) {
+                FarmNodeStatus s = new FarmNodeStatus(node.url.toString());
+                s.setHealthy(node.healthy);
+                s.setOutstanding(node.outstanding);
+                s.setCompleted(node.completed);
+                s.setFailed(node.failed);
+                s.setAverageMillis(node.completed == 0 ? 0 : node.totalMillis / node.completed);
+                s.setMillisPerMegabyte(node.millisPerMegabyte);
+                status.add(s);
+            }
+        }
+        return status;
+    }
+
+    /**
+     * Picks the healthy node with the fewest conversions in flight, preferring
+     * the faster node on a tie, and counts the new conversion against it
+     *
+     * @param tried nodes that have already failed this document
+     * @return the chosen node, or null if none is left to try
+     */
+    private Node chooseNode(Set<Node> tried) {
+        synchronized (nodes) {
+            Node best = null;
+            for (Node node : nodes) {
+                if (!node.healthy || tried.contains(node)) {
+                    continue;
+                }
+                if (best == null || node.outstanding < best.outstanding
+                        || (node.outstanding == best.outstanding && node.millisPerMegabyte < best.millisPerMegabyte)) {
+                    best = node;
+                }
+            }
+            if (best != null) {
+                best.outstanding++;
+            }
+            return best;
+        }
+    }
+
+    /**
+     * POSTs the document to one node and writes the PDF it returns
+     *
+     * @throws DocumentRejectedException if the node rejected the document
+     * itself
+     * @throws IOException if the node could not be reached or failed
+     */
+    private void send(Node node, File input, String mimeType, File output) throws IOException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            HttpURLConnection conn = (HttpURLConnection) node.url.openConnection();
+            conn.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+            conn.setReadTimeout(CONVERT_TIMEOUT_MILLIS);
+            conn.setRequestMethod("POST");
+            conn.setDoOutput(true);
+            conn.setRequestProperty("Content-Type", mimeType);
+            conn.setRequestProperty("Accept", "application/pdf");
+            conn.setRequestProperty(HEADER_JOB_PRIORITY, JOB_PRIORITY);
+            conn.setFixedLengthStreamingMode(input.length());
+            try (OutputStream out = conn.getOutputStream()) {
+                Files.copy(input.toPath(), out);
+            }
+            int status = conn.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                // read to the end, so the connection can be reused:
+                InputStream error = conn.getErrorStream();
+                if (error != null) {
+                    drain(error);
+                }
+                boolean rejected = status >= 400 && status < 500 && status != HttpURLConnection.HTTP_CLIENT_TIMEOUT && status != 429;
+                String message = "Conversion node " + node.url + " answered HTTP " + status + " for " + input.getName();
+                throw rejected ? new DocumentRejectedException(message) : new IOException(message);
+            }
+            try (InputStream in = conn.getInputStream()) {
+                Files.copy(in, output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (output.length() == 0) {
+                throw new IOException("Conversion node " + node.url + " returned an empty PDF for " + input.getName());
+            }
+            success = true;
+        } finally {
+            record(node, success, (System.nanoTime() - start) / 1000000, input.length());
+        }
+    }
+
+    private void record(Node node, boolean success, long millis, long inputBytes) {
+        synchronized (nodes) {
+            node.outstanding--;
+            if (!success) {
+                node.failed++;
+                return;
+            }
+            node.completed++;
+            node.totalMillis += millis;
+            double perMegabyte = millis / Math.max(inputBytes / (1024.0 * 1024.0), 0.01);
+            node.millisPerMegabyte = node.millisPerMegabyte == 0 ? perMegabyte
+                    : node.millisPerMegabyte + LATENCY_WEIGHT * (perMegabyte - node.millisPerMegabyte);
+        }
+        LOGGER.log(Level.FINE, "Conversion node {0} took {1} ms", new Object[]{node.url, millis});
+    }
+
+    private void markDown(Node node) {
+        synchronized (nodes) {
+            node.healthy = false;
+        }
+    }
+
+    /**
+     * Checks every node once, straight away, so isAvailable() has an answer,
+     * then keeps checking in the background
+     */
+    private synchronized void startHealthChecks() {
+        if (healthChecker != null) {
+            return;
+        }
+        checkHealth();
+        healthChecker = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "PDFJoiner-farm-health");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        healthChecker.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                checkHealth();
+            }
+        }, HEALTH_CHECK_MILLIS, HEALTH_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void checkHealth() {
+        List<Node> all;
+        synchronized (nodes) {
+            all = new ArrayList<>(nodes);
+        }
+        for (Node node : all) {
+            boolean healthy;
+            try {
+                HttpURLConnection conn = (HttpURLConnection) node.url.openConnection();
+                conn.setConnectTimeout(HEALTH_TIMEOUT_MILLIS);
+                conn.setReadTimeout(HEALTH_TIMEOUT_MILLIS);
+                healthy = conn.getResponseCode() == HttpURLConnection.HTTP_OK;
+                InputStream body = healthy ? conn.getInputStream() : conn.getErrorStream();
+                if (body != null) {
+                    drain(body);
+                }
+            } catch (IOException ex) {
+                healthy = false;
+            }
+            synchronized (nodes) {
+                if (node.healthy != healthy) {
+                    LOGGER.log(Level.INFO, "Conversion node {0} is {1}", new Object[]{node.url, healthy ? "up" : "down"});
+                }
+                node.healthy = healthy;
+            }
+        }
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        try {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                // discard
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Simple helper method to give the MIME type a conversion server expects
+     * for a type of document
+     *
+     * @param fileType PDFManager.TYPE_ reference
+     * @return MIME type, or null if the farm can't convert the type
+     */
+    private static String mimeType(int fileType) {
+        switch (fileType) {
+            case PDFManager.TYPE_PPT:
+                return "application/vnd.ms-powerpoint";
+            case PDFManager.TYPE_PPTX:
+                return "application/vnd.openxmlformats-officedocument.presentationml.presentation";
+            case PDFManager.TYPE_DOC:
+                return "application/msword";
+            case PDFManager.TYPE_DOCX:
+                return "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+            case PDFManager.TYPE_ODT:
+                return "application/vnd.oasis.opendocument.text";
+            case PDFManager.TYPE_ODP:
+                return "application/vnd.oasis.opendocument.presentation";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * One conversion server; all fields are guarded by the nodes list
+     */
+    private static class Node {
+
+        private final URL url;
+        private boolean healthy = true;
+        private int outstanding;
+        private long completed;
+        private long failed;
+        private long totalMillis;
+        private double millisPerMegabyte;
+
+        Node(URL url) {
+            this.url = url;
+        }
+    }
+
+    /**
+     * Thrown when a node refuses the document itself, rather than failing
+     */
+    private static class DocumentRejectedException extends IOException {
+
+        DocumentRejectedException(String message) {
+            super(message);
+        }
+    }
+}
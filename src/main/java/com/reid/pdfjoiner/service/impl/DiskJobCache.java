@@ -0,0 +1,409 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import com.reid.pdfjoiner.primitive.MergeOptions;
+import com.reid.pdfjoiner.primitive.MergeReport;
+import com.reid.pdfjoiner.service.JobCache;
+import com.reid.pdfjoiner.service.OutputWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps job outputs in a directory on disk, one sub-directory per key
+ * holding the output files as part-001.pdf, part-002.pdf, ... Entries are
+ * written to a temporary directory and renamed into place, so a half-written
+ * entry is never seen. When the total size goes over the limit, the least
+ * recently used entries are deleted.
+ * <p>
+ * Source content hashes are remembered by path, modification time and size,
+ * so a repeated job only re-reads sources that have changed. Each entry also
+ * has a small index file, named after the paths, times and sizes of its
+ * sources and its options, which findKey uses to tell whether a job is
+ * worth hashing at all.
+ *
+ * @author pmreid
+ */
+public class DiskJobCache implements JobCache {
+
+    private static final Logger LOGGER = Logger.getLogger(DiskJobCache.class.getName());
+    private static final String PART_FORMAT = "part-%03d.pdf";
+    private static final String TEMP_PREFIX = ".tmp-";
+    private static final String INDEX_SUFFIX = ".key";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int MAX_CONTENT_HASHES = 10000;
+    // shared by every cache, as the content of a file doesn't depend on where it is cached; least recently used go first:
+    private static final Map<String, String> contentHashes = Collections.synchronizedMap(new LinkedHashMap<String, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_CONTENT_HASHES;
+        }
+    });
+
+    private final File dir;
+    private final long maxBytes;
+    private final boolean linkResults;
+
+    /**
+     * @param dir directory to keep the cache in; created if necessary
+     * @param maxBytes upper limit on the total size of the cached outputs
+     * @param linkResults true to hard link cached outputs into place instead
+     * of copying them, where the file system allows it. Linked outputs share
+     * their content with the cache, so must not be edited in place.
+     */
+    public DiskJobCache(File dir, long maxBytes, boolean linkResults) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.linkResults = linkResults;
+    }
+
+    @Override
+    public String computeKey(List<File> sources, MergeOptions options) throws IOException {
+        MessageDigest digest = newDigest();
+        for (String hash : contentHashes(sources)) {
+            digest.update(hash.getBytes(StandardCharsets.US_ASCII));
+            digest.update((byte) '\n');
+        }
+        digest.update(describeOptions(options).getBytes(StandardCharsets.US_ASCII));
+        return toHex(digest.digest());
+    }
+
+    @Override
+    public String findKey(List<File> sources, MergeOptions options) {
+        String key;
+        try {
+            key = new String(Files.readAllBytes(indexFile(sources, options).toPath()), StandardCharsets.US_ASCII).trim();
+        } catch (IOException ex) {
+            // usually no such index file
+            return null;
+        }
+        return new File(dir, key).isDirectory() ? key : null;
+    }
+
+    @Override
+    public boolean restore(String key, File dest, MergeOptions options, MergeReport report) {
+        File entry = new File(dir, key);
+        File[] parts = listParts(entry);
+        if (parts.length == 0 || (!options.isSharded() && parts.length != 1)) {
+            return false;
+        }
+        List<File> restored = new ArrayList<>(parts.length);
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                File target = options.isSharded() ? PartWriter.partFile(dest, i + 1) : dest;
+                place(parts[i], target, options);
+                restored.add(target);
+            }
+        } catch (IOException ex) {
+            // most likely evicted by another job while we were copying; just merge instead
+            LOGGER.log(Level.WARNING, "Could not restore cached result " + key, ex);
+            return false;
+        }
+        entry.setLastModified(System.currentTimeMillis());
+        for (File f : restored) {
+            report.addOutputFile(f);
+        }
+        LOGGER.log(Level.INFO, "Restored {0} file(s) from the job cache", restored.size());
+        return true;
+    }
+
+    @Override
+    public void store(String key, List<File> sources, MergeOptions options, MergeReport report) {
+        // restoring can't reproduce a report of rejected sources, so such a job is never cached:
+        if (report.getOutputFiles().isEmpty() || !report.getRejectedSources().isEmpty()) {
+            return;
+        }
+        File entry = new File(dir, key);
+        if (entry.isDirectory()) {
+            // the same content, perhaps from other files:
+            writeIndex(key, sources, options);
+            return;
+        }
+        File tmp = new File(dir, TEMP_PREFIX + key + "-" + Thread.currentThread().getId());
+        try {
+            Files.createDirectories(tmp.toPath());
+            int number = 0;
+            for (File output : report.getOutputFiles()) {
+                Files.copy(output.toPath(), new File(tmp, String.format(PART_FORMAT, ++number)).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            try {
+                Files.move(tmp.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException ex) {
+                // another job stored the same result first
+                LOGGER.log(Level.FINE, "Result " + key + " was already cached", ex);
+            }
+            writeIndex(key, sources, options);
+            evict();
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Could not cache result " + key, ex);
+        } finally {
+            deleteTree(tmp);
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache is within its
+     * size limit
+     */
+    private void evict() {
+        File[] entries = dir.listFiles();
+        if (entries == null) {
+            return;
+        }
+        final Map<File, Long> used = new HashMap<>();
+        long total = 0;
+        List<File> keys = new ArrayList<>();
+        for (File entry : entries) {
+            if (entry.isDirectory() && !entry.getName().startsWith(TEMP_PREFIX)) {
+                keys.add(entry);
+                used.put(entry, entry.lastModified());
+                for (File part : listParts(entry)) {
+                    total += part.length();
+                }
+            }
+        }
+        keys.sort(new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(used.get(a), used.get(b));
+            }
+        });
+        for (File entry : keys) {
+            if (total <= maxBytes) {
+                break;
+            }
+            for (File part : listParts(entry)) {
+                total -= part.length();
+            }
+            deleteTree(entry);
+            LOGGER.log(Level.FINE, "Evicted {0} from the job cache", entry.getName());
+        }
+        // index files of evicted entries:
+        for (File entry : entries) {
+            if (entry.isFile() && entry.getName().endsWith(INDEX_SUFFIX)) {
+                try {
+                    String key = new String(Files.readAllBytes(entry.toPath()), StandardCharsets.US_ASCII).trim();
+                    if (!new File(dir, key).isDirectory()) {
+                        entry.delete();
+                    }
+                } catch (IOException ex) {
+                    LOGGER.log(Level.FINE, "Could not read " + entry, ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Simple helper method to point the index file of a job at its entry
+     */
+    private void writeIndex(String key, List<File> sources, MergeOptions options) {
+        try {
+            // a torn index file names no entry, so is simply a miss:
+            Files.write(indexFile(sources, options).toPath(), key.getBytes(StandardCharsets.US_ASCII));
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Could not index cached result " + key, ex);
+        }
+    }
+
+    /**
+     * Simple helper method to name the index file of a job from the paths,
+     * sizes and modification times of its sources, and its options
+     */
+    private File indexFile(List<File> sources, MergeOptions options) {
+        MessageDigest digest = newDigest();
+        for (File source : sources) {
+            digest.update(statusOf(source).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        digest.update(describeOptions(options).getBytes(StandardCharsets.US_ASCII));
+        return new File(dir, toHex(digest.digest()) + INDEX_SUFFIX);
+    }
+
+    /**
+     * Simple helper method to put a cached file at the destination, by hard
+     * link if allowed and possible, otherwise by copying
+     */
+    private void place(final File cached, File target, MergeOptions options) throws IOException {
+        if (linkResults) {
+            try {
+                Files.deleteIfExists(target.toPath());
+                Files.createLink(target.toPath(), cached.toPath());
+                return;
+            } catch (IOException | UnsupportedOperationException ex) {
+                // eg a different volume; fall through and copy
+                LOGGER.log(Level.FINE, "Could not link " + target + ", copying instead", ex);
+            }
+        }
+        new AtomicFileWriter(options.getWriteBufferSize(), options.getDurability()).write(target, new OutputWriter.Content() {
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                Files.copy(cached.toPath(), out);
+            }
+        });
+    }
+
+    /**
+     * Simple helper method to hash the content of a file, reusing the
+     * previous hash if the file hasn't changed. Also used by the job journal
+     * to check its artefacts.
+     */
+    static String contentHash(File source) throws IOException {
+        String id = statusOf(source);
+        String hash = contentHashes.get(id);
+        if (hash == null) {
+            MessageDigest digest = newDigest();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (InputStream in = Files.newInputStream(source.toPath())) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            hash = toHex(digest.digest());
+            contentHashes.put(id, hash);
+        }
+        return hash;
+    }
+
+    /**
+     * Hashes the content of the sources in parallel, as most of the time
+     * goes on reading them
+     *
+     * @return the hashes, in the same order
+     * @throws IOException if a source cannot be read
+     */
+    private static List<String> contentHashes(List<File> sources) throws IOException {
+        List<String> hashes = new ArrayList<>(sources.size());
+        if (sources.isEmpty()) {
+            return hashes;
+        }
+        int threads = Math.min(sources.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> futures = new ArrayList<>(sources.size());
+            for (final File source : sources) {
+                futures.add(pool.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws IOException {
+                        return contentHash(source);
+                    }
+                }));
+            }
+            for (Future<String> future : futures) {
+                hashes.add(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while hashing the sources");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new IOException(ex.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return hashes;
+    }
+
+    /**
+     * Simple helper method to identify a file by its path, modification time
+     * and size, which change whenever it is rewritten in the usual way
+     */
+    private static String statusOf(File source) {
+        return source.getAbsolutePath() + "|" + source.lastModified() + "|" + source.length();
+    }
+
+    /**
+     * Simple helper method to give every option that affects the output, in
+     * a fixed order
+     */
+    private static String describeOptions(MergeOptions options) {
+        return "linearize=" + options.isLinearize()
+                + ";maxPartBytes=" + options.getMaxPartBytes()
+                + ";maxPartPages=" + options.getMaxPartPages()
+                + ";imageTargetDpi=" + options.getImageTargetDpi()
+                + ";imageQuality=" + options.getImageQuality()
+                + ";deterministic=" + options.isDeterministic()
+                // these two only when they differ from the default, so the keys of existing entries don't change:
+                + (options.getBadSourcePolicy() == MergeOptions.BAD_SOURCE_SKIP ? "" : ";badSources=" + options.getBadSourcePolicy())
+                + (options.getDuplicatePagePolicy() == MergeOptions.DUPLICATE_PAGES_KEEP ? "" : ";duplicatePages=" + options.getDuplicatePagePolicy());
+    }
+
+    private static File[] listParts(File entry) {
+        File[] parts = entry.listFiles();
+        if (parts == null) {
+            return new File[0];
+        }
+        // the zero-padded names sort in part order:
+        Arrays.sort(parts);
+        return parts;
+    }
+
+    private static void deleteTree(File f) {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteTree(child);
+            }
+        }
+        f.delete();
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
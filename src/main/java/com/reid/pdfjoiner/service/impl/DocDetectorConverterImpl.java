@@ -16,25 +16,26 @@
  */
 package com.reid.pdfjoiner.service.impl;
 
-import com.documents4j.api.DocumentType;
-import com.documents4j.api.IConverter;
-import com.documents4j.conversion.msoffice.MicrosoftPowerpointBridge;
-import com.documents4j.job.LocalConverter;
 import com.reid.pdfjoiner.PDFJoiner;
 import com.reid.pdfjoiner.primitive.ConversionResult;
+import com.reid.pdfjoiner.service.ConverterBackend;
 import com.reid.pdfjoiner.service.DocDetectorConverter;
+import com.reid.pdfjoiner.service.EventRecorder;
 import com.reid.pdfjoiner.service.PDFManager;
-import java.io.BufferedInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -44,6 +45,11 @@ import java.util.logging.Logger;
  */
 public class DocDetectorConverterImpl implements DocDetectorConverter {
 
+    private static final Logger LOGGER = Logger.getLogger(DocDetectorConverterImpl.class.getName());
+    // conversions mostly wait on other processes or hosts, so this is not tied to the core count:
+    private static final int CONVERSION_THREADS = Integer.getInteger("pdfjoiner.convert.threads", 8);
+    private static List<ConverterBackend> backends;
+
     @Override
     public boolean checkFileIsPDF(File file) {
         /*
@@ -53,8 +59,40 @@ public class DocDetectorConverterImpl implements DocDetectorConverter {
         return file.getName().toLowerCase().endsWith(".pdf");
     }
 
+    @Override
+    public int detectFileType(File file) {
+        if (checkFileIsPDF(file)) {
+            return PDFManager.TYPE_PDF;
+        }
+        return getFileType(file);
+    }
+
+    @Override
+    public boolean canConvert(int fileType) {
+        return !availableBackends(fileType).isEmpty();
+    }
+
     @Override
     public ConversionResult attemptConversion(File file) {
+        EventRecorder.Stage event = EventRecorders.get().begin(EventRecorder.STAGE_CONVERSION);
+        ConversionResult result = convert(file);
+        // failures are recorded too, as the time they waste is part of the picture:
+        event.setSource(file.getPath());
+        event.setByteSize(file.length());
+        event.setDocumentType(result.getSource_file_type());
+        event.setBackend(result.getBackend());
+        event.setSuccess(result.isSuccess());
+        event.record();
+        return result;
+    }
+
+    /**
+     * Converts a document with the cheapest backend that manages it
+     *
+     * @param file Populated Java File reference of source document
+     * @return populated ConversionResult DTO
+     */
+    private ConversionResult convert(File file) {
         int type = getFileType(file);
         ConversionResult result = new ConversionResult();
         result.setSource_file_type(type);
@@ -63,26 +101,25 @@ public class DocDetectorConverterImpl implements DocDetectorConverter {
                 File tmp = File.createTempFile("PDFJoiner_", "." + PDFJoiner.SUFFIX);
                 tmp.deleteOnExit();
                 result.setTempFile(tmp);
-                switch (type) {
-                    case PDFManager.TYPE_PPT:
-                        result.setSuccess(doc4JConverter(file, tmp, DocumentType.PPT));
-                        break;
-                    case PDFManager.TYPE_PPTX:
-                        result.setSuccess(doc4JConverter(file, tmp, DocumentType.PPTX));
-                        break;
-                    case PDFManager.TYPE_DOC:
-                        result.setSuccess(doc4JConverter(file, tmp, DocumentType.DOC));
-                        break;
-                    case PDFManager.TYPE_DOCX:
-                        result.setSuccess(doc4JConverter(file, tmp, DocumentType.DOCX));
-                        break;
-                    case PDFManager.TYPE_ODT:
-                        // not yet implemented
+                // cheapest first; if one fails, the next is tried:
+                for (ConverterBackend backend : availableBackends(type)) {
+                    try {
+                        backend.convert(file, type, tmp);
+                        result.setSuccess(true);
+                        result.setBackend(backend.getName());
                         break;
-                    case PDFManager.TYPE_ODP:
-                        // not yet implemented
-                        break;
-
+                    } catch (IOException | RuntimeException ex) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            // cancelled, eg with its job; the other converters would be interrupted too
+                            LOGGER.log(Level.FINE, "Conversion of {0} cancelled", file.getName());
+                            break;
+                        }
+                        LOGGER.log(Level.WARNING, backend.getName() + " could not convert " + file.getName() + "; trying the next converter", ex);
+                    }
+                }
+                if (!result.isSuccess()) {
+                    tmp.delete();
+                    result.setTempFile(null);
                 }
             } catch (IOException ex) {
                 return result;
@@ -91,6 +128,103 @@ public class DocDetectorConverterImpl implements DocDetectorConverter {
         return result;
     }
 
+    @Override
+    public List<ConversionResult> attemptConversions(List<File> files) {
+        return attemptConversions(files, null);
+    }
+
+    @Override
+    public List<ConversionResult> attemptConversions(List<File> files, final ConversionListener listener) {
+        List<ConversionResult> results = new ArrayList<>(files.size());
+        if (files.isEmpty()) {
+            return results;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(files.size(), CONVERSION_THREADS));
+        try {
+            List<Future<ConversionResult>> futures = new ArrayList<>(files.size());
+            for (final File f : files) {
+                futures.add(pool.submit(new Callable<ConversionResult>() {
+                    @Override
+                    public ConversionResult call() {
+                        ConversionResult result = attemptConversion(f);
+                        if (listener != null) {
+                            listener.converted(f, result);
+                        }
+                        return result;
+                    }
+                }));
+            }
+            for (Future<ConversionResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException ex) {
+                    LOGGER.log(Level.WARNING, "Conversion failed", ex.getCause());
+                    results.add(new ConversionResult());
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            while (results.size() < files.size()) {
+                results.add(new ConversionResult());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Simple helper method to list the backends that can convert a type of
+     * document on this host, cheapest first
+     *
+     * @param fileType PDFManager.TYPE_ reference
+     * @return List of backends, possibly empty
+     */
+    private static List<ConverterBackend> availableBackends(int fileType) {
+        List<ConverterBackend> usable = new ArrayList<>();
+        for (ConverterBackend backend : getBackends()) {
+            if (backend.supports(fileType) && backend.isAvailable()) {
+                usable.add(backend);
+            }
+        }
+        Collections.sort(usable, new Comparator<ConverterBackend>() {
+            @Override
+            public int compare(ConverterBackend a, ConverterBackend b) {
+                return Double.compare(a.getCostPerMegabyte(), b.getCostPerMegabyte());
+            }
+        });
+        return usable;
+    }
+
+    /**
+     * Finds the converter backends the first time one is needed: LibreOffice
+     * and the conversion farm, which are built in, plus any optional modules
+     * on the class path
+     *
+     * @return List of all backends
+     */
+    private static synchronized List<ConverterBackend> getBackends() {
+        if (backends == null) {
+            List<ConverterBackend> found = new ArrayList<>();
+            found.add(new LibreOfficeBackend());
+            found.add(new ConversionFarmBackend());
+            Iterator<ConverterBackend> it = ServiceLoader.load(ConverterBackend.class, DocDetectorConverterImpl.class.getClassLoader()).iterator();
+            while (true) {
+                try {
+                    if (!it.hasNext()) {
+                        break;
+                    }
+                    found.add(it.next());
+                } catch (ServiceConfigurationError ex) {
+                    // eg a module whose own dependencies are missing; the others still work
+                    LOGGER.log(Level.WARNING, "Skipping a converter backend that could not be loaded", ex);
+                }
+            }
+            backends = found;
+        }
+        return backends;
+    }
+
     /**
      * Performs a basic check on the given file to extract its type from the
      * extension
@@ -119,59 +253,4 @@ public class DocDetectorConverterImpl implements DocDetectorConverter {
         }
         return type;
     }
-
-    /**
-     * Helper method that calls the document4j API. This API, which only works
-     * on a native MS Windows environment with a working Microsoft Office
-     * implementation, will call MS Office's background API, and do a "proper"
-     * Microsoft Office conversion from DOCX, PPTX etc into PDF, which is
-     * captured as a temporary file
-     *
-     * @param inputFile Populated Java File object of the input file to be
-     * converted
-     * @param tmpFile Populated Java File object of an (empty) temporary file
-     * that will store the generated PDF
-     * @param docType Reference to the type of source document, eg
-     * DocumentType.PPTX
-     * @return true on success
-     */
-    private boolean doc4JConverter(File inputFile, File tmpFile, DocumentType docType) {
-
-        boolean result = false;
-        try {
-            FileInputStream inputStream = new FileInputStream(inputFile);
-            ByteArrayOutputStream bo = new ByteArrayOutputStream();
-            InputStream in = new BufferedInputStream(inputStream);
-            IConverter converter = LocalConverter.builder()
-                    .baseFolder(new File(tmpFile.getParent()))
-                    .workerPool(20, 25, 2, TimeUnit.SECONDS)
-                    .enable(MicrosoftPowerpointBridge.class)
-                    .processTimeout(5, TimeUnit.SECONDS)
-                    .build();
-
-            Future<Boolean> conversion = converter
-                    .convert(in).as(docType)
-                    .to(bo).as(DocumentType.PDF)
-                    .prioritizeWith(1000) // optional
-                    .schedule();
-
-            {
-                try {
-                    conversion.get();
-                } catch (InterruptedException | ExecutionException ex) {
-                    Logger.getLogger(DocDetectorConverterImpl.class.getName()).log(Level.SEVERE, null, ex);
-                }
-            }
-            OutputStream outputStream = new FileOutputStream(tmpFile);
-            bo.writeTo(outputStream);
-            in.close();
-            bo.close();
-            result = true;
-        } catch (IOException ex) {
-            return result;
-
-        }
-
-        return result;
-    }
 }
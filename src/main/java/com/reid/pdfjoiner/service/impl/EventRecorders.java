@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import com.reid.pdfjoiner.service.EventRecorder;
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Finds the EventRecorder once, falling back to one that records nothing
+ *
+ * @author pmreid
+ */
+final class EventRecorders {
+
+    private static final Logger LOGGER = Logger.getLogger(EventRecorders.class.getName());
+    private static final EventRecorder RECORDER = load();
+
+    private EventRecorders() {
+    }
+
+    /**
+     * @return the EventRecorder to use; never null
+     */
+    static EventRecorder get() {
+        return RECORDER;
+    }
+
+    private static EventRecorder load() {
+        Iterator<EventRecorder> it = ServiceLoader.load(EventRecorder.class, EventRecorders.class.getClassLoader()).iterator();
+        try {
+            if (it.hasNext()) {
+                return it.next();
+            }
+        } catch (ServiceConfigurationError | LinkageError ex) {
+            // eg the Flight Recorder module on Java 8, which it is not compiled for
+            LOGGER.log(Level.FINE, "Flight Recorder events are not available on this JVM", ex);
+        }
+        return new NoEventRecorder();
+    }
+
+    /**
+     * Hands out a single stateless Stage, so that instrumented code costs no
+     * more than a few calls to empty methods
+     */
+    private static class NoEventRecorder implements EventRecorder, EventRecorder.Stage {
+
+        @Override
+        public Stage begin(int stage) {
+            return this;
+        }
+
+        @Override
+        public void setSource(String source) {
+        }
+
+        @Override
+        public void setByteSize(long bytes) {
+        }
+
+        @Override
+        public void setPageCount(int pages) {
+        }
+
+        @Override
+        public void setDocumentType(int fileType) {
+        }
+
+        @Override
+        public void setBackend(String backend) {
+        }
+
+        @Override
+        public void setCacheHit(boolean cacheHit) {
+        }
+
+        @Override
+        public void setSuccess(boolean success) {
+        }
+
+        @Override
+        public void record() {
+        }
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import com.reid.pdfjoiner.primitive.MergeOptions;
+import com.reid.pdfjoiner.primitive.SourceValidation;
+import com.reid.pdfjoiner.service.JobJournal;
+import com.reid.pdfjoiner.service.OutputWriter;
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps a job journal in a directory of its own: an append-only log of
+ * tab-separated records, one per line, next to the files they refer to. Each
+ * file is written in full before its record, so a record that made it to the
+ * log always has its file; a crash part way through a record leaves a broken
+ * last line, which is ignored. Later records replace earlier ones for the same
+ * source or batch.
+ *
+ * @author pmreid
+ */
+public class FileJobJournal implements JobJournal {
+
+    private static final Logger LOGGER = Logger.getLogger(FileJobJournal.class.getName());
+    private static final String LOG_NAME = "journal.log";
+    private static final String KIND_CONVERTED = "converted";
+    private static final String KIND_VALIDATED = "validated";
+    private static final String KIND_BATCH = "batch";
+    private static final String NONE = "-";
+    // journals of jobs that were never run again are cleared out after this long:
+    private static final long MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+    private final File dir;
+    private final MergeOptions options;
+    // keyed by kind and source hash or batch number:
+    private final Map<String, String[]> records = new HashMap<>();
+    private FileChannel log;
+
+    /**
+     * Opens the journal of a job, reading what an earlier run recorded
+     *
+     * @param dir directory of this job's journal; created if necessary
+     * @param options populated MergeOptions DTO; its durability setting
+     * applies to the journal too
+     * @throws IOException if the journal can't be created
+     */
+    public FileJobJournal(File dir, MergeOptions options) throws IOException {
+        this.dir = dir;
+        this.options = options;
+        removeStale(dir.getAbsoluteFile().getParentFile(), dir);
+        Files.createDirectories(dir.toPath());
+        File logFile = new File(dir, LOG_NAME);
+        if (logFile.isFile()) {
+            read(logFile);
+        }
+        this.log = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // new records go after the last complete one, not onto the end of one a crash cut short:
+        log.truncate(endOfLastRecord(log));
+        log.position(log.size());
+        if (!records.isEmpty()) {
+            LOGGER.log(Level.INFO, "Resuming job from {0} journal records in {1}", new Object[]{records.size(), dir});
+        }
+    }
+
+    @Override
+    public synchronized File getConversion(File source) {
+        String[] record = records.get(KIND_CONVERTED + hashOf(source));
+        if (record == null || !verify(record[2], record[3])) {
+            return null;
+        }
+        return new File(dir, record[2]);
+    }
+
+    @Override
+    public void recordConversion(File source, File converted) throws IOException {
+        String sourceHash = DiskJobCache.contentHash(source);
+        String name = KIND_CONVERTED + "-" + sourceHash.substring(0, 16) + ".pdf";
+        String artefactHash = keep(converted, name);
+        append(new String[]{KIND_CONVERTED, sourceHash, name, artefactHash}, KIND_CONVERTED + sourceHash);
+    }
+
+    @Override
+    public synchronized SourceValidation getValidation(File source) {
+        String[] record = records.get(KIND_VALIDATED + hashOf(source));
+        if (record == null) {
+            return null;
+        }
+        SourceValidation validation = new SourceValidation(source);
+        validation.setStatus(Integer.parseInt(record[2]));
+        if (validation.getStatus() == SourceValidation.STATUS_REPAIRED) {
+            if (!verify(record[3], record[4])) {
+                return null;
+            }
+            validation.setRepairedFile(new File(dir, record[3]));
+            validation.setProblem(record[5]);
+        }
+        return validation;
+    }
+
+    @Override
+    public void recordValidation(SourceValidation validation) throws IOException {
+        String sourceHash = DiskJobCache.contentHash(validation.getFile());
+        String[] record;
+        if (validation.getStatus() == SourceValidation.STATUS_VALID) {
+            record = new String[]{KIND_VALIDATED, sourceHash, String.valueOf(validation.getStatus()), NONE, NONE, NONE};
+        } else if (validation.getStatus() == SourceValidation.STATUS_REPAIRED) {
+            String name = "repaired-" + sourceHash.substring(0, 16) + ".pdf";
+            String artefactHash = keep(validation.getRepairedFile(), name);
+            // the record is one line of tab-separated fields:
+            String problem = validation.getProblem() == null ? NONE : validation.getProblem().replaceAll("\\s+", " ");
+            record = new String[]{KIND_VALIDATED, sourceHash, String.valueOf(validation.getStatus()), name, artefactHash, problem};
+        } else {
+            return;
+        }
+        append(record, KIND_VALIDATED + sourceHash);
+    }
+
+    @Override
+    public File getBatchFile(int number) {
+        return new File(dir, String.format("%s-%05d.pdf", KIND_BATCH, number));
+    }
+
+    @Override
+    public synchronized File getBatch(int number, String inputs) {
+        String[] record = records.get(KIND_BATCH + number);
+        if (record == null || !record[2].equals(inputs) || !verify(record[3], record[4])) {
+            return null;
+        }
+        return new File(dir, record[3]);
+    }
+
+    @Override
+    public void recordBatch(int number, String inputs) throws IOException {
+        File batch = getBatchFile(number);
+        append(new String[]{KIND_BATCH, String.valueOf(number), inputs, batch.getName(), DiskJobCache.contentHash(batch)}, KIND_BATCH + number);
+    }
+
+    @Override
+    public synchronized void complete() {
+        close();
+        deleteTree(dir);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (log != null) {
+            try {
+                log.close();
+            } catch (IOException ex) {
+                LOGGER.log(Level.FINE, "Could not close the journal in " + dir, ex);
+            }
+            log = null;
+        }
+    }
+
+    /**
+     * Simple helper method to copy an intermediate file into the journal, as
+     * durably as the options ask
+     *
+     * @return checksum of the copy
+     */
+    private String keep(final File file, String name) throws IOException {
+        File copy = new File(dir, name);
+        new AtomicFileWriter(options.getWriteBufferSize(), options.getDurability()).write(copy, new OutputWriter.Content() {
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                Files.copy(file.toPath(), out);
+            }
+        });
+        return DiskJobCache.contentHash(copy);
+    }
+
+    /**
+     * Appends a record to the log, after the file it refers to has been
+     * written
+     */
+    private synchronized void append(String[] record, String key) throws IOException {
+        if (log == null) {
+            throw new IOException("The journal in " + dir + " is closed");
+        }
+        String line = String.join("\t", record) + "\n";
+        ByteBuffer bytes = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            log.write(bytes);
+        }
+        if (options.getDurability() > MergeOptions.DURABILITY_NONE) {
+            log.force(options.getDurability() == MergeOptions.DURABILITY_FULL);
+        }
+        records.put(key, record);
+    }
+
+    /**
+     * Simple helper method to find where the last complete record in the log
+     * ends
+     *
+     * @param channel the open log
+     * @return position just after its last newline, or 0 if it has none
+     */
+    private static long endOfLastRecord(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long end = channel.size();
+        while (end > 0) {
+            long start = Math.max(0, end - buffer.capacity());
+            buffer.clear();
+            buffer.limit((int) (end - start));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new EOFException("The journal log shrank while being read");
+                }
+            }
+            for (int i = buffer.limit() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    private void read(File logFile) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(logFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] record = line.split("\t", -1);
+                if (record[0].equals(KIND_CONVERTED) && record.length == 4) {
+                    records.put(KIND_CONVERTED + record[1], record);
+                } else if (record[0].equals(KIND_VALIDATED) && record.length == 6 && isNumber(record[2])) {
+                    records.put(KIND_VALIDATED + record[1], record);
+                } else if (record[0].equals(KIND_BATCH) && record.length == 5 && isNumber(record[1])) {
+                    records.put(KIND_BATCH + record[1], record);
+                } else {
+                    // eg the last line of a run that crashed while writing it
+                    LOGGER.log(Level.FINE, "Ignoring broken journal record in {0}", logFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Simple helper method to check that a file the journal refers to is
+     * still there and unchanged
+     *
+     * @return true if the file matches its checksum
+     */
+    private boolean verify(String name, String hash) {
+        File f = new File(dir, name);
+        try {
+            if (f.isFile() && DiskJobCache.contentHash(f).equals(hash)) {
+                return true;
+            }
+        } catch (IOException ex) {
+            LOGGER.log(Level.FINE, "Could not check " + f, ex);
+        }
+        LOGGER.log(Level.WARNING, "Journal file {0} is missing or damaged; that stage will be redone", f);
+        return false;
+    }
+
+    private static String hashOf(File source) {
+        try {
+            return DiskJobCache.contentHash(source);
+        } catch (IOException ex) {
+            // unreadable sources are reported by the indexer
+            return NONE;
+        }
+    }
+
+    private static boolean isNumber(String text) {
+        try {
+            Integer.parseInt(text);
+            return true;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Simple helper method to delete the journals of other jobs that haven't
+     * been touched for a long time
+     */
+    private static void removeStale(File root, File keep) {
+        File[] journals = root == null ? null : root.listFiles();
+        if (journals == null) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - MAX_AGE_MILLIS;
+        for (File journal : journals) {
+            File logFile = new File(journal, LOG_NAME);
+            if (!journal.equals(keep) && logFile.isFile() && logFile.lastModified() < cutoff) {
+                LOGGER.log(Level.INFO, "Removing stale job journal {0}", journal);
+                deleteTree(journal);
+            }
+        }
+    }
+
+    private static void deleteTree(File f) {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteTree(child);
+            }
+        }
+        f.delete();
+    }
+}
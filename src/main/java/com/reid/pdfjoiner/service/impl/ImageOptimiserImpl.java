@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import com.reid.pdfjoiner.primitive.MergeOptions;
+import com.reid.pdfjoiner.primitive.MergeReport;
+import com.reid.pdfjoiner.service.ImageOptimiser;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.DeflaterOutputStream;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+import org.apache.pdfbox.pdmodel.graphics.color.PDCalGray;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceGray;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceRGB;
+import org.apache.pdfbox.pdmodel.graphics.color.PDICCBased;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+/**
+ * Finds the image XObjects in a document, including those inside forms, and
+ * downsamples any whose resolution is above the target. The resolution of an
+ * image is estimated as if it filled the larger dimension of the largest page
+ * it is used on, which can only under-estimate it, so images never end up
+ * below the target.
+ * <p>
+ * PDFBox documents are not thread-safe, so images are decoded one at a time;
+ * the scaling and re-encoding, which is most of the work, runs in parallel.
+ * The number of decoded images in memory at once is limited by the memory cap
+ * in the options.
+ *
+ * @author pmreid
+ */
+public class ImageOptimiserImpl implements ImageOptimiser {
+
+    private static final Logger LOGGER = Logger.getLogger(ImageOptimiserImpl.class.getName());
+    // don't bother re-encoding images that would shrink by less than this:
+    private static final double MIN_SCALE_GAIN = 1.1;
+
+    @Override
+    public void optimise(PDDocument doc, MergeOptions options, MergeReport report) throws IOException {
+        if (options.getImageTargetDpi() <= MergeOptions.UNLIMITED) {
+            return;
+        }
+        // COSStream equality is identity; keeping page order makes the output reproducible:
+        Map<COSStream, Candidate> candidates = new LinkedHashMap<>();
+        Set<COSStream> visitedForms = Collections.newSetFromMap(new IdentityHashMap<COSStream, Boolean>());
+        for (PDPage page : doc.getPages()) {
+            PDRectangle box = page.getMediaBox();
+            float inches = Math.max(box.getWidth(), box.getHeight()) / 72f;
+            collectImages(page.getResources(), inches, candidates, visitedForms);
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        // permits are KB of decoded image, so large limits don't overflow an int:
+        final int memoryPermits = (int) Math.max(1, Math.min(Integer.MAX_VALUE, options.getImageMemoryLimit() / 1024));
+        final Semaphore memory = new Semaphore(memoryPermits);
+        List<Future<Encoded>> futures = new ArrayList<>();
+        List<Candidate> submitted = new ArrayList<>();
+        try {
+            for (Candidate c : candidates.values()) {
+                final Encoded plan = plan(c, options);
+                if (plan != null) {
+                    submitted.add(c);
+                    futures.add(pool.submit(new Downsample(doc, c.image, plan, options.getImageQuality(), memory, memoryPermits)));
+                }
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                Candidate c = submitted.get(i);
+                try {
+                    replace(doc, c, futures.get(i).get(), report);
+                } catch (ExecutionException ex) {
+                    // leave this image as it was
+                    LOGGER.log(Level.WARNING, "Could not downsample image", ex.getCause());
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while downsampling images", ex);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Walks a resource dictionary, recording each image and the resource
+     * entries that refer to it, and recursing into forms
+     */
+    private void collectImages(PDResources resources, float inches, Map<COSStream, Candidate> candidates, Set<COSStream> visitedForms) throws IOException {
+        if (resources == null) {
+            return;
+        }
+        for (COSName name : resources.getXObjectNames()) {
+            PDXObject xobject = resources.getXObject(name);
+            if (xobject instanceof PDImageXObject) {
+                COSStream stream = xobject.getCOSObject();
+                Candidate c = candidates.get(stream);
+                if (c == null) {
+                    c = new Candidate((PDImageXObject) xobject);
+                    candidates.put(stream, c);
+                }
+                c.inches = Math.max(c.inches, inches);
+                c.resources.add(resources);
+                c.names.add(name);
+            } else if (xobject instanceof PDFormXObject && visitedForms.add(xobject.getCOSObject())) {
+                collectImages(((PDFormXObject) xobject).getResources(), inches, candidates, visitedForms);
+            }
+        }
+    }
+
+    /**
+     * Decides whether an image is worth downsampling, and to what size
+     *
+     * @return the target dimensions and encoding, or null to leave it alone
+     */
+    private Encoded plan(Candidate c, MergeOptions options) throws IOException {
+        PDImageXObject image = c.image;
+        COSStream stream = image.getCOSObject();
+        // masks, alpha and bi-level scans don't survive JPEG or 8-bit re-encoding:
+        if (image.isStencil() || image.getBitsPerComponent() != 8
+                || stream.containsKey(COSName.SMASK) || stream.containsKey(COSName.MASK)) {
+            return null;
+        }
+        double dpi = image.getWidth() / Math.max(c.inches, 1f);
+        if (dpi <= options.getImageTargetDpi() * MIN_SCALE_GAIN) {
+            return null;
+        }
+        double scale = options.getImageTargetDpi() / dpi;
+        Encoded plan = new Encoded();
+        plan.width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        plan.height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        PDColorSpace colorSpace = image.getColorSpace();
+        // palette (Indexed) and spot colour (Separation) images have one component too, but it isn't a shade of
+        // gray; they and DeviceN images are decoded to RGB and re-encoded that way:
+        plan.gray = colorSpace instanceof PDDeviceGray || colorSpace instanceof PDCalGray
+                || (colorSpace instanceof PDICCBased && colorSpace.getNumberOfComponents() == 1);
+        // keep lossy images lossy and lossless images lossless:
+        plan.jpeg = "jpg".equals(image.getSuffix());
+        return plan;
+    }
+
+    /**
+     * Swaps the downsampled image in for the original wherever it was used, if
+     * it actually came out smaller
+     */
+    private void replace(PDDocument doc, Candidate c, Encoded encoded, MergeReport report) throws IOException {
+        long originalLength = c.image.getCOSObject().getLength();
+        if (encoded.data.length >= originalLength) {
+            return;
+        }
+        PDImageXObject replacement;
+        if (encoded.jpeg) {
+            replacement = JPEGFactory.createFromByteArray(doc, encoded.data);
+        } else {
+            replacement = new PDImageXObject(doc, new ByteArrayInputStream(encoded.data), COSName.FLATE_DECODE,
+                    encoded.width, encoded.height, 8, encoded.gray ? PDDeviceGray.INSTANCE : PDDeviceRGB.INSTANCE);
+        }
+        replacement.setInterpolate(c.image.getInterpolate());
+        for (int i = 0; i < c.resources.size(); i++) {
+            c.resources.get(i).put(c.names.get(i), replacement);
+        }
+        report.addOptimisedImage(originalLength - encoded.data.length, encoded.millis);
+        LOGGER.log(Level.FINE, "Downsampled {0}x{1} image to {2}x{3}, saving {4} bytes in {5} ms",
+                new Object[]{c.image.getWidth(), c.image.getHeight(), encoded.width, encoded.height,
+                    originalLength - encoded.data.length, encoded.millis});
+    }
+
+    /**
+     * An image found in the document, and where it is used
+     */
+    private static class Candidate {
+
+        private final PDImageXObject image;
+        private final List<PDResources> resources = new ArrayList<>();
+        private final List<COSName> names = new ArrayList<>();
+        private float inches;
+
+        Candidate(PDImageXObject image) {
+            this.image = image;
+        }
+    }
+
+    /**
+     * The target size and encoding of an image, and once done, its encoded
+     * data
+     */
+    private static class Encoded {
+
+        private int width;
+        private int height;
+        private boolean gray;
+        private boolean jpeg;
+        private byte[] data;
+        private long millis;
+    }
+
+    /**
+     * Decodes, scales and re-encodes a single image
+     */
+    private static class Downsample implements Callable<Encoded> {
+
+        private final PDDocument doc;
+        private final PDImageXObject image;
+        private final Encoded plan;
+        private final float quality;
+        private final Semaphore memory;
+        private final int maxPermits;
+
+        Downsample(PDDocument doc, PDImageXObject image, Encoded plan, float quality, Semaphore memory, int maxPermits) {
+            this.doc = doc;
+            this.image = image;
+            this.plan = plan;
+            this.quality = quality;
+            this.memory = memory;
+            this.maxPermits = maxPermits;
+        }
+
+        @Override
+        public Encoded call() throws IOException, InterruptedException {
+            long start = System.nanoTime();
+            long decodedBytes = (long) image.getWidth() * image.getHeight() * 4;
+            int permits = (int) Math.min(maxPermits, decodedBytes / 1024 + 1);
+            memory.acquire(permits);
+            try {
+                BufferedImage decoded;
+                synchronized (doc) {
+                    decoded = image.getImage();
+                }
+                BufferedImage scaled = scale(decoded, plan.width, plan.height, plan.gray);
+                plan.data = plan.jpeg ? encodeJpeg(scaled, quality) : encodeFlate(scaled, plan.gray);
+            } finally {
+                memory.release(permits);
+            }
+            plan.millis = (System.nanoTime() - start) / 1000000;
+            return plan;
+        }
+
+        /**
+         * Scales in halving steps and then a final bilinear step, which looks
+         * much better than a single bilinear step for large reductions
+         */
+        private static BufferedImage scale(BufferedImage src, int width, int height, boolean gray) {
+            int type = gray ? BufferedImage.TYPE_BYTE_GRAY : BufferedImage.TYPE_INT_RGB;
+            BufferedImage current = src;
+            int w = src.getWidth();
+            int h = src.getHeight();
+            do {
+                w = Math.max(width, w / 2);
+                h = Math.max(height, h / 2);
+                BufferedImage next = new BufferedImage(w, h, type);
+                Graphics2D g = next.createGraphics();
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(current, 0, 0, w, h, null);
+                g.dispose();
+                current = next;
+            } while (w != width || h != height);
+            return current;
+        }
+
+        private static byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            return bytes.toByteArray();
+        }
+
+        private static byte[] encodeFlate(BufferedImage image, boolean gray) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (OutputStream out = new DeflaterOutputStream(bytes)) {
+                int w = image.getWidth();
+                int[] rgb = new int[w];
+                byte[] row = new byte[gray ? w : w * 3];
+                for (int y = 0; y < image.getHeight(); y++) {
+                    if (gray) {
+                        image.getRaster().getDataElements(0, y, w, 1, row);
+                    } else {
+                        image.getRGB(0, y, w, 1, rgb, 0, w);
+                        for (int x = 0; x < w; x++) {
+                            row[x * 3] = (byte) (rgb[x] >> 16);
+                            row[x * 3 + 1] = (byte) (rgb[x] >> 8);
+                            row[x * 3 + 2] = (byte) rgb[x];
+                        }
+                    }
+                    out.write(row);
+                }
+            }
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import com.reid.pdfjoiner.primitive.MergeJob;
+import com.reid.pdfjoiner.primitive.MergeOptions;
+import com.reid.pdfjoiner.service.JobQueue;
+import com.reid.pdfjoiner.service.PDFManager;
+import com.reid.pdfjoiner.service.PreConverter;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs merge jobs on a small pool of worker threads that live as long as the
+ * session, so every job after the first runs in a warmed-up JVM. Each job
+ * gets its own PDFManager, as a manager's last report belongs to one job;
+ * memory is shared out between concurrent jobs by the admission control in
+ * PDFManagerImpl.
+ *
+ * @author pmreid
+ */
+public class JobQueueImpl implements JobQueue {
+
+    private static final Logger LOGGER = Logger.getLogger(JobQueueImpl.class.getName());
+
+    private final PreConverter preConverter;
+    private final ThreadPoolExecutor pool;
+    // all guarded by this:
+    private final List<MergeJob> jobs = new ArrayList<>();
+    private final Map<MergeJob, Future<?>> futures = new HashMap<>();
+    private final Set<MergeJob> cancelRequested = new HashSet<>();
+    private int nextId = 1;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param preConverter background converter whose results the jobs should
+     * reuse; may be null
+     * @param threads number of jobs that may run at once
+     */
+    public JobQueueImpl(PreConverter preConverter, int threads) {
+        this.preConverter = preConverter;
+        // jobs start in the order they were submitted:
+        this.pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "PDFJoiner-job");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public MergeJob submit(File dest, List<File> sources, MergeOptions options) {
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("The source files list is empty.");
+        }
+        File parent = dest.getAbsoluteFile().getParentFile();
+        if (parent == null || !parent.canWrite()) {
+            throw new IllegalArgumentException("Destination file unwritable: " + dest.getAbsolutePath());
+        }
+        final MergeJob job;
+        synchronized (this) {
+            for (MergeJob other : jobs) {
+                if (isActive(other) && other.getDestination().getAbsoluteFile().equals(dest.getAbsoluteFile())) {
+                    throw new IllegalArgumentException("Job " + other.getId() + " is already writing to " + dest.getAbsolutePath());
+                }
+            }
+            job = new MergeJob(nextId++, dest, Collections.unmodifiableList(new ArrayList<>(sources)), options);
+            job.setSubmittedMillis(System.currentTimeMillis());
+            jobs.add(job);
+            futures.put(job, pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    runJob(job);
+                }
+            }));
+        }
+        fireChange();
+        return job;
+    }
+
+    @Override
+    public boolean cancel(MergeJob job) {
+        synchronized (this) {
+            Future<?> future = futures.get(job);
+            if (future == null) {
+                return false;
+            }
+            if (job.getStatus() == MergeJob.STATUS_QUEUED) {
+                future.cancel(false);
+                futures.remove(job);
+                job.setStatus(MergeJob.STATUS_CANCELLED);
+                job.setFinishedMillis(System.currentTimeMillis());
+            } else {
+                // the merge checks for the interrupt between sources, and its worker records the outcome:
+                cancelRequested.add(job);
+                future.cancel(true);
+            }
+        }
+        pool.purge();
+        fireChange();
+        return true;
+    }
+
+    @Override
+    public synchronized List<MergeJob> getJobs() {
+        return new ArrayList<>(jobs);
+    }
+
+    @Override
+    public synchronized boolean hasActiveJobs() {
+        return !futures.isEmpty();
+    }
+
+    @Override
+    public void clearFinished() {
+        synchronized (this) {
+            Iterator<MergeJob> it = jobs.iterator();
+            while (it.hasNext()) {
+                if (!isActive(it.next())) {
+                    it.remove();
+                }
+            }
+        }
+        fireChange();
+    }
+
+    @Override
+    public void addChangeListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void shutdown() {
+        for (MergeJob job : getJobs()) {
+            cancel(job);
+        }
+        pool.shutdownNow();
+    }
+
+    /**
+     * Runs one job on a worker thread, unless it was cancelled while queued
+     */
+    private void runJob(MergeJob job) {
+        synchronized (this) {
+            if (job.getStatus() != MergeJob.STATUS_QUEUED) {
+                return;
+            }
+            job.setStatus(MergeJob.STATUS_RUNNING);
+            job.setStartedMillis(System.currentTimeMillis());
+        }
+        fireChange();
+        PDFManager manager = new PDFManagerImpl(preConverter);
+        boolean status = false;
+        try {
+            status = manager.joinPDFs(job.getDestination(), job.getSources(), job.getOptions());
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.SEVERE, "Job " + job.getId() + " failed", ex);
+            if (manager.getLastReport() != null) {
+                manager.getLastReport().setFailure(ex.toString());
+            }
+        }
+        // the pool would clear it anyway; the outcome is taken from cancelRequested instead:
+        Thread.interrupted();
+        synchronized (this) {
+            job.setReport(manager.getLastReport());
+            job.setFinishedMillis(System.currentTimeMillis());
+            if (status) {
+                job.setStatus(MergeJob.STATUS_DONE);
+            } else if (cancelRequested.contains(job)) {
+                job.setStatus(MergeJob.STATUS_CANCELLED);
+            } else {
+                job.setStatus(MergeJob.STATUS_FAILED);
+            }
+            cancelRequested.remove(job);
+            futures.remove(job);
+        }
+        LOGGER.log(Level.INFO, "Job {0} finished in {1} ms", new Object[]{job.getId(), job.getFinishedMillis() - job.getStartedMillis()});
+        fireChange();
+    }
+
+    private static boolean isActive(MergeJob job) {
+        return job.getStatus() == MergeJob.STATUS_QUEUED || job.getStatus() == MergeJob.STATUS_RUNNING;
+    }
+
+    private void fireChange() {
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+}
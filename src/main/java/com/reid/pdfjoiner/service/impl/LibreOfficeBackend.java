@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import com.reid.pdfjoiner.service.ConverterBackend;
+import com.reid.pdfjoiner.service.PDFManager;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.logging.Logger;
+import org.apache.commons.exec.CommandLine;
+import org.apache.commons.exec.DefaultExecutor;
+import org.apache.commons.exec.ExecuteException;
+import org.apache.commons.exec.ExecuteWatchdog;
+
+/**
+ * Converts Word, PowerPoint and OpenDocument files by running LibreOffice
+ * headless, on any platform where it is installed. It needs nothing beyond
+ * commons-exec, so it is always built in. The location of soffice can be set
+ * with the "pdfjoiner.soffice" system property; by default it is looked up on
+ * the PATH.
+ * <p>
+ * LibreOffice refuses to run twice on the same user profile, so conversions
+ * are done one at a time.
+ *
+ * @author pmreid
+ */
+public class LibreOfficeBackend implements ConverterBackend {
+
+    private static final Logger LOGGER = Logger.getLogger(LibreOfficeBackend.class.getName());
+    private static final String SOFFICE = System.getProperty("pdfjoiner.soffice", "soffice");
+    private static final Duration VERSION_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration CONVERT_TIMEOUT = Duration.ofMinutes(5);
+    // a fresh LibreOffice process is started for every document:
+    private static final double COST_PER_MB = 3000;
+    private static Boolean available;
+
+    @Override
+    public String getName() {
+        return "LibreOffice";
+    }
+
+    @Override
+    public boolean supports(int fileType) {
+        switch (fileType) {
+            case PDFManager.TYPE_PPT:
+            case PDFManager.TYPE_PPTX:
+            case PDFManager.TYPE_DOC:
+            case PDFManager.TYPE_DOCX:
+            case PDFManager.TYPE_ODP:
+            case PDFManager.TYPE_ODT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        synchronized (LibreOfficeBackend.class) {
+            if (available == null) {
+                try {
+                    run(new CommandLine(SOFFICE).addArgument("--version"), VERSION_TIMEOUT);
+                    available = true;
+                } catch (IOException ex) {
+                    available = false;
+                }
+            }
+            return available;
+        }
+    }
+
+    @Override
+    public double getCostPerMegabyte() {
+        return COST_PER_MB;
+    }
+
+    @Override
+    public void convert(File input, int fileType, File output) throws IOException {
+        File outDir = Files.createTempDirectory("PDFJoiner_soffice").toFile();
+        try {
+            CommandLine cmd = new CommandLine(SOFFICE)
+                    .addArgument("--headless")
+                    .addArgument("--norestore")
+                    .addArgument("--convert-to")
+                    .addArgument("pdf")
+                    .addArgument("--outdir")
+                    .addArgument(outDir.getAbsolutePath(), false)
+                    .addArgument(input.getAbsolutePath(), false);
+            synchronized (LibreOfficeBackend.class) {
+                try {
+                    run(cmd, CONVERT_TIMEOUT);
+                } catch (ExecuteException ex) {
+                    throw new IOException("LibreOffice could not convert " + input.getName() + " (exit code " + ex.getExitValue() + ")", ex);
+                }
+            }
+            // LibreOffice names the output after the input, and exits 0 even if it wrote nothing:
+            String name = input.getName();
+            int dot = name.lastIndexOf('.');
+            File converted = new File(outDir, (dot > 0 ? name.substring(0, dot) : name) + ".pdf");
+            if (!converted.isFile() || converted.length() == 0) {
+                throw new IOException("LibreOffice did not produce a PDF for " + input.getName());
+            }
+            Files.move(converted.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            File[] leftovers = outDir.listFiles();
+            if (leftovers != null) {
+                for (File f : leftovers) {
+                    f.delete();
+                }
+            }
+            outDir.delete();
+        }
+    }
+
+    private static void run(CommandLine cmd, Duration timeout) throws IOException {
+        DefaultExecutor executor = DefaultExecutor.builder().get();
+        executor.setWatchdog(ExecuteWatchdog.builder().setTimeout(timeout).get());
+        // otherwise soffice's output is copied to the console:
+        executor.setStreamHandler(LoggedOutput.handler(LOGGER, "soffice"));
+        executor.execute(cmd);
+    }
+}
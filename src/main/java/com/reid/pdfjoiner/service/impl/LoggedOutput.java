@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.commons.exec.LogOutputStream;
+import org.apache.commons.exec.PumpStreamHandler;
+
+/**
+ * Passes each line an external tool writes to a log, rather than letting
+ * commons-exec copy it to the console
+ *
+ * @author pmreid
+ */
+class LoggedOutput extends LogOutputStream {
+
+    private final Logger logger;
+    private final Level level;
+    private final String tool;
+
+    LoggedOutput(Logger logger, Level level, String tool) {
+        this.logger = logger;
+        this.level = level;
+        this.tool = tool;
+    }
+
+    /**
+     * Simple helper method to build a stream handler that logs a tool's
+     * standard output as detail and its standard error as warnings
+     *
+     * @param logger Logger to write to
+     * @param tool name to prefix each line with
+     * @return handler to give to the executor
+     */
+    static PumpStreamHandler handler(Logger logger, String tool) {
+        return new PumpStreamHandler(new LoggedOutput(logger, Level.FINE, tool), new LoggedOutput(logger, Level.WARNING, tool));
+    }
+
+    @Override
+    protected void processLine(String line, int logLevel) {
+        logger.log(level, tool + ": {0}", line);
+    }
+}
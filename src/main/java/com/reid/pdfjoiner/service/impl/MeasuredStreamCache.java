@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.pdfbox.io.RandomAccess;
+import org.apache.pdfbox.io.RandomAccessReadWriteBuffer;
+import org.apache.pdfbox.io.RandomAccessStreamCache;
+
+/**
+ * An in-memory stream cache, like IOUtils.createMemoryOnlyStreamCache(), that
+ * also keeps a running total of the bytes held in the buffers of all the
+ * documents of one job, so the admission controller can calibrate its
+ * estimates against the most the job held at once
+ *
+ * @author pmreid
+ */
+class MeasuredStreamCache implements RandomAccessStreamCache.StreamCacheCreateFunction {
+
+    private final AtomicLong heldBytes = new AtomicLong();
+    private final AtomicLong peakBytes = new AtomicLong();
+
+    @Override
+    public RandomAccessStreamCache create() {
+        return new RandomAccessStreamCache() {
+            @Override
+            public RandomAccess createBuffer() {
+                return new CountedBuffer();
+            }
+
+            @Override
+            public void close() {
+                // each buffer is closed by the stream that owns it
+            }
+        };
+    }
+
+    /**
+     * @return the most bytes held by the job's buffers at once
+     */
+    long getPeakBytes() {
+        return peakBytes.get();
+    }
+
+    private void add(long delta) {
+        long held = heldBytes.addAndGet(delta);
+        long peak = peakBytes.get();
+        while (held > peak && !peakBytes.compareAndSet(peak, held)) {
+            peak = peakBytes.get();
+        }
+    }
+
+    /**
+     * A memory buffer that reports every change in its size to the total
+     */
+    private class CountedBuffer extends RandomAccessReadWriteBuffer {
+
+        private long counted = 0;
+
+        @Override
+        public void write(int b) throws IOException {
+            super.write(b);
+            recount();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            recount();
+        }
+
+        @Override
+        public void clear() throws IOException {
+            super.clear();
+            recount();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!isClosed()) {
+                add(-counted);
+                counted = 0;
+            }
+            super.close();
+        }
+
+        private void recount() throws IOException {
+            long size = length();
+            add(size - counted);
+            counted = size;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import com.reid.pdfjoiner.primitive.Admission;
+import com.reid.pdfjoiner.primitive.MergeOptions;
+import com.reid.pdfjoiner.service.AdmissionController;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Admits merge jobs against a heap budget. A job held in memory is estimated
+ * to need its stream cache, which is calibrated against the cache sizes seen
+ * in earlier jobs, plus a fixed allowance per page for the parsed objects,
+ * plus the image optimiser's memory limit if images are to be downsampled. A
+ * job that spills to disk needs only the last two. Jobs that don't fit wait,
+ * in no particular order, until running jobs release enough of the budget.
+ * A job is always admitted if nothing else is running, however big it is, so
+ * no job can wait forever.
+ *
+ * @author pmreid
+ */
+public class MemoryAdmissionController implements AdmissionController {
+
+    private static final Logger LOGGER = Logger.getLogger(MemoryAdmissionController.class.getName());
+    // heap taken by a page's parsed objects, whichever stream cache is used:
+    private static final long PAGE_BYTES = 64 * 1024;
+    // the stream cache starts out assumed to be half as big again as the sources:
+    private static final double INITIAL_CACHE_FACTOR = 1.5;
+    // weight of each new observation in the calibrated factor:
+    private static final double CALIBRATION_WEIGHT = 0.2;
+    private static final double MIN_CACHE_FACTOR = 0.25;
+    private static final double MAX_CACHE_FACTOR = 20;
+    // added on top of the calibrated estimate, as an observation is only an average:
+    private static final double SAFETY_MARGIN = 1.25;
+
+    private final long budgetBytes;
+    private final long maxInMemoryBytes;
+    private final long maxQueueMillis;
+    private long reservedBytes = 0;
+    private double cacheFactor = INITIAL_CACHE_FACTOR;
+
+    /**
+     * @param budgetBytes heap shared between all running jobs
+     * @param maxInMemoryBytes jobs estimated to need more than this in memory
+     * spill to disk straight away
+     * @param maxQueueMillis time a job waits for room to run in memory before
+     * it spills to disk instead
+     */
+    public MemoryAdmissionController(long budgetBytes, long maxInMemoryBytes, long maxQueueMillis) {
+        this.budgetBytes = budgetBytes;
+        this.maxInMemoryBytes = maxInMemoryBytes;
+        this.maxQueueMillis = maxQueueMillis;
+    }
+
+    @Override
+    public synchronized Admission admit(long sourceBytes, int pages, MergeOptions options) throws InterruptedException {
+        Admission admission = new Admission(sourceBytes, pages);
+        long fixedBytes = (long) Math.max(pages, 0) * PAGE_BYTES;
+        if (options.getImageTargetDpi() > MergeOptions.UNLIMITED) {
+            fixedBytes += options.getImageMemoryLimit();
+        }
+        long inMemoryBytes = fixedBytes + (long) (sourceBytes * cacheFactor * SAFETY_MARGIN);
+        long start = System.currentTimeMillis();
+        boolean spill = inMemoryBytes > maxInMemoryBytes;
+        if (!spill) {
+            long deadline = start + maxQueueMillis;
+            while (!fits(inMemoryBytes)) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    spill = true;
+                    break;
+                }
+                wait(remaining);
+            }
+        }
+        if (spill) {
+            while (!fits(fixedBytes)) {
+                wait();
+            }
+        }
+        admission.setSpillToDisk(spill);
+        admission.setReservedBytes(spill ? fixedBytes : inMemoryBytes);
+        admission.setQueuedMillis(System.currentTimeMillis() - start);
+        reservedBytes += admission.getReservedBytes();
+        LOGGER.log(Level.FINE, "Admitted job of {0} bytes and {1} pages {2}, reserving {3} bytes after waiting {4} ms",
+                new Object[]{sourceBytes, pages, spill ? "spilling to disk" : "in memory",
+                    admission.getReservedBytes(), admission.getQueuedMillis()});
+        return admission;
+    }
+
+    @Override
+    public synchronized void release(Admission admission, long observedCacheBytes) {
+        reservedBytes -= admission.getReservedBytes();
+        admission.setReservedBytes(0);
+        if (!admission.isSpillToDisk() && observedCacheBytes >= 0 && admission.getSourceBytes() > 0) {
+            double observed = (double) observedCacheBytes / admission.getSourceBytes();
+            cacheFactor += CALIBRATION_WEIGHT * (observed - cacheFactor);
+            cacheFactor = Math.min(MAX_CACHE_FACTOR, Math.max(MIN_CACHE_FACTOR, cacheFactor));
+        }
+        notifyAll();
+    }
+
+    /**
+     * Simple helper method to decide whether a reservation fits in what is
+     * left of the budget; anything fits when nothing else is reserved
+     */
+    private boolean fits(long bytes) {
+        return reservedBytes == 0 || reservedBytes + bytes <= budgetBytes;
+    }
+}
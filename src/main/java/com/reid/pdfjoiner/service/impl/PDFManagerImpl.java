@@ -17,16 +17,44 @@
 package com.reid.pdfjoiner.service.impl;
 
 import com.reid.pdfjoiner.PDFJoiner;
+import com.reid.pdfjoiner.primitive.Admission;
 import com.reid.pdfjoiner.primitive.ConversionResult;
+import com.reid.pdfjoiner.primitive.MergeOptions;
+import com.reid.pdfjoiner.primitive.MergeReport;
+import com.reid.pdfjoiner.primitive.PDFSource;
+import com.reid.pdfjoiner.primitive.SourceInfo;
+import com.reid.pdfjoiner.primitive.SourceValidation;
+import com.reid.pdfjoiner.service.AdmissionController;
 import com.reid.pdfjoiner.service.DocDetectorConverter;
+import com.reid.pdfjoiner.service.EventRecorder;
+import com.reid.pdfjoiner.service.JobCache;
+import com.reid.pdfjoiner.service.JobJournal;
+import com.reid.pdfjoiner.service.Linearizer;
+import com.reid.pdfjoiner.service.OutputWriter;
 import com.reid.pdfjoiner.service.PDFManager;
+import com.reid.pdfjoiner.service.PreConverter;
+import com.reid.pdfjoiner.service.SourceIndexer;
+import com.reid.pdfjoiner.service.SourceValidator;
 import java.awt.Desktop;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.io.RandomAccessStreamCache;
-import org.apache.pdfbox.multipdf.PDFMergerUtility;
 
 /**
  *
@@ -36,52 +64,845 @@ public class PDFManagerImpl implements PDFManager {
 
 // Potentially used to vary procedure for launching desktop PDF viewing:
     private static String OS = System.getProperty("os.name").toLowerCase();
+    private static final Logger LOGGER = Logger.getLogger(PDFManagerImpl.class.getName());
+    // above this share of the heap, the merge is cached on disk rather than in memory:
+    private static final double MEMORY_CACHE_FRACTION = 0.25;
+    // share of the heap that concurrent merges may reserve between them; the rest is left for the UI and previews:
+    private static final double MERGE_BUDGET_FRACTION = 0.6;
+    private static final AdmissionController admissionController = new MemoryAdmissionController(
+            (long) (Runtime.getRuntime().maxMemory() * MERGE_BUDGET_FRACTION),
+            (long) (Runtime.getRuntime().maxMemory() * MEMORY_CACHE_FRACTION),
+            Long.getLong("pdfjoiner.admission.maxwait", 10000));
+    // finished jobs are kept here, up to the size limit; a limit of 0 turns the cache off:
+    private static final long JOB_CACHE_BYTES = Long.getLong("pdfjoiner.cache.maxmb", 1024) * 1024 * 1024;
+    // unrepairable sources are copied here for inspection:
+    private static final File QUARANTINE_DIR = new File(System.getProperty("pdfjoiner.quarantine.dir",
+            new File(System.getProperty("java.io.tmpdir"), "PDFJoiner-quarantine").getPath()));
+    // journals of unfinished jobs, so that they can be resumed:
+    private static final File JOURNAL_DIR = new File(System.getProperty("pdfjoiner.journal.dir",
+            new File(System.getProperty("java.io.tmpdir"), "PDFJoiner-journal").getPath()));
+    // journaled jobs bigger than this are merged in batches of about this size, each of which is kept:
+    private static final long JOURNAL_BATCH_BYTES = Long.getLong("pdfjoiner.journal.batchmb", 256) * 1024 * 1024;
+    // sources on network shares copied to local disk ahead of the merge; 0 to read them in place:
+    private static final int READ_AHEAD_DEPTH = Integer.getInteger("pdfjoiner.readahead.depth", 4);
+    private static final JobCache jobCache = new DiskJobCache(
+            new File(System.getProperty("pdfjoiner.cache.dir", new File(System.getProperty("java.io.tmpdir"), "PDFJoiner-cache").getPath())),
+            JOB_CACHE_BYTES, Boolean.getBoolean("pdfjoiner.cache.link"));
+
+    private final PreConverter preConverter;
+    private MergeReport lastReport;
+
+    public PDFManagerImpl() {
+        this(null);
+    }
+
+    /**
+     * @param preConverter background converter whose results the join should
+     * reuse; may be null
+     */
+    public PDFManagerImpl(PreConverter preConverter) {
+        this.preConverter = preConverter;
+    }
 
     @Override
     public boolean joinPDFs(File dest, List<File> sources) {
+        return joinPDFs(dest, sources, new MergeOptions());
+    }
+
+    @Override
+    public boolean joinPDFs(File dest, final List<File> sources, final MergeOptions options) {
+        lastReport = new MergeReport();
+        String key = null;
+        if (JOB_CACHE_BYTES > 0) {
+            // reads the sources only if they look like those of a cached job:
+            key = jobCache.findKey(sources, options);
+        }
+        if (key != null) {
+            EventRecorder.Stage event = EventRecorders.get().begin(EventRecorder.STAGE_OUTPUT_WRITE);
+            if (jobCache.restore(key, dest, options, lastReport)) {
+                long bytes = 0;
+                for (File f : lastReport.getOutputFiles()) {
+                    bytes += f.length();
+                }
+                event.setSource(dest.getPath());
+                event.setByteSize(bytes);
+                event.setCacheHit(true);
+                event.setSuccess(true);
+                event.record();
+                return true;
+            }
+        }
+        ExecutorService keyHasher = null;
+        Future<String> pendingKey = null;
+        if (key == null && (options.isDeterministic() || options.isJournaled())) {
+            // needed before anything is written:
+            key = computeKey(sources, options);
+        } else if (key == null && JOB_CACHE_BYTES > 0) {
+            // only needed to store the result, so the sources are hashed alongside the merge:
+            keyHasher = Executors.newSingleThreadExecutor();
+            pendingKey = keyHasher.submit(new Callable<String>() {
+                @Override
+                public String call() {
+                    return computeKey(sources, options);
+                }
+            });
+        }
+        JobJournal journal = options.isJournaled() && key != null ? openJournal(key, dest, options) : null;
+        List<File> temps = new ArrayList<>();
+        try {
+            boolean status = mergeFiles(dest, sources, options, key, pendingKey, journal, temps);
+            if (status && journal != null) {
+                journal.complete();
+            }
+            return status;
+        } finally {
+            if (journal != null) {
+                journal.close();
+            }
+            for (File f : temps) {
+                f.delete();
+            }
+            if (keyHasher != null) {
+                keyHasher.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Simple helper method to work out the job cache key of a job
+     *
+     * @return hex key, or null if a source can't be read
+     */
+    private static String computeKey(List<File> sources, MergeOptions options) {
+        try {
+            return jobCache.computeKey(sources, options);
+        } catch (IOException ex) {
+            // an unreadable source will be reported when it is indexed
+            LOGGER.log(Level.FINE, "Could not compute the job cache key", ex);
+            return null;
+        }
+    }
+
+    /**
+     * Simple helper method to wait for a job cache key being worked out in
+     * the background
+     *
+     * @return hex key, or null if there isn't one
+     */
+    private static String awaitKey(Future<String> pendingKey) {
+        if (pendingKey == null) {
+            return null;
+        }
+        try {
+            return pendingKey.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException ex) {
+            LOGGER.log(Level.FINE, "Could not compute the job cache key", ex.getCause());
+            return null;
+        }
+    }
+
+    /**
+     * Runs the stages of a merge of files: preparing the sources, then
+     * writing them out, in batches if the job is journaled and large
+     *
+     * @param key job cache key, or null if there isn't one yet
+     * @param pendingKey job cache key being worked out in the background, if
+     * key is null; may be null
+     * @param journal JobJournal to resume from and record in, or null
+     * @param temps list to add the repaired sources, conversions and
+     * placeholders made for the job to, so that they can be deleted once it is done
+     * @return true on success
+     */
+    private boolean mergeFiles(File dest, List<File> sources, MergeOptions options, String key, Future<String> pendingKey,
+            JobJournal journal, List<File> temps) {
         boolean status = false;
-        PDFMergerUtility pmu = new PDFMergerUtility();
-        pmu.setDestinationFileName(dest.getAbsolutePath());
-        int sourceCount = 0;
-        DocDetectorConverter converter = new DocDetectorConverterImpl();
-        for (File file : sources) {
+        Linearizer linearizer = new QpdfLinearizer();
+        boolean linearize = options.isLinearize() && linearizer.isAvailable();
+        if (options.isLinearize() && !linearize) {
+            LOGGER.log(Level.WARNING, "Linearized output was requested but qpdf is not available; writing a normal PDF");
+        }
+        List<SourceInfo> prepared = prepareSources(sources, options, journal, temps);
+        if (Thread.currentThread().isInterrupted()) {
+            // conversions stopped by the cancel would otherwise be reported as bad sources:
+            LOGGER.log(Level.INFO, "Merge cancelled while preparing the sources");
+            return false;
+        }
+        // the rejected sources are listed in the report, for the caller to show:
+        for (String description : lastReport.getRejectedSources()) {
+            LOGGER.log(Level.WARNING, "Rejected source {0}", description);
+        }
+        if (prepared == null) {
+            lastReport.setFailure("The job was stopped because some sources could not be read or repaired");
+        }
+
+        if (prepared != null && !prepared.isEmpty()) {
+            long sourceBytes = 0;
+            int pages = 0;
+            for (SourceInfo info : prepared) {
+                sourceBytes += info.getByteSize();
+                pages += Math.max(info.getPageCount(), 0);
+            }
+            Admission admission;
+            try {
+                admission = admissionController.admit(sourceBytes, pages, options);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                LOGGER.log(Level.INFO, "Merge cancelled while waiting for memory");
+                return false;
+            }
+            lastReport.setSpilledToDisk(admission.isSpillToDisk());
+            lastReport.setQueuedMillis(admission.getQueuedMillis());
+            MeasuredStreamCache measured = admission.isSpillToDisk() ? null : new MeasuredStreamCache();
+            RandomAccessStreamCache.StreamCacheCreateFunction streamCache = measured != null ? measured : IOUtils.createTempFileOnlyStreamCache();
+            PartWriter writer = new PartWriter(dest, options, streamCache, linearize ? linearizer : null, lastReport);
+            if (key != null) {
+                writer.setIdSeed(key);
+            }
+            long observedCacheBytes = -1;
             try {
-                if (converter.checkFileIsPDF(file)) {
-                    pmu.addSource(file);
-                    sourceCount++;
+                long start = System.nanoTime();
+                List<SourceInfo> batches = journal == null ? prepared : writeBatches(prepared, journal, options, streamCache);
+                // duplicate pages are found by fingerprinting the sources a few ahead of the merge, in parallel:
+                PageFingerprinterImpl fingerprinter = options.getDuplicatePagePolicy() == MergeOptions.DUPLICATE_PAGES_KEEP
+                        ? null : new PageFingerprinterImpl();
+                try (ReadAheadStager stager = new ReadAheadStager(filesOf(batches), READ_AHEAD_DEPTH, fingerprinter)) {
+                    for (int i = 0; i < batches.size(); i++) {
+                        checkCancelled();
+                        writer.append(stager.take(i), batches.get(i).getByteSize(), stager.getFingerprints(i));
+                        stager.release(i);
+                    }
+                    writer.finish();
+                }
+                logDuplicatePages(options);
+                if (batches != prepared) {
+                    lastReport.setSourcesMerged(prepared.size());
+                }
+                if (measured != null) {
+                    observedCacheBytes = measured.getPeakBytes();
+                }
+                LOGGER.log(Level.INFO, "Merged {0} pages from {1} sources into {2} file(s) in {3} ms",
+                        new Object[]{lastReport.getPagesWritten(), lastReport.getSourcesMerged(),
+                            lastReport.getOutputFiles().size(), (System.nanoTime() - start) / 1000000});
+                status = true;
+                // don't cache a result that a retry might improve on:
+                boolean complete = lastReport.getRejectedSources().isEmpty() && linearize == options.isLinearize();
+                if (JOB_CACHE_BYTES > 0 && complete) {
+                    String storeKey = key != null ? key : awaitKey(pendingKey);
+                    if (storeKey != null) {
+                        jobCache.store(storeKey, sources, options, lastReport);
+                    }
+                }
+            } catch (IOException ex) {
+                writer.abort();
+                if (Thread.currentThread().isInterrupted()) {
+                    LOGGER.log(Level.INFO, "Merge cancelled; no output was written");
+                } else {
+                    LOGGER.log(Level.SEVERE, "Could not merge the sources", ex);
+                    lastReport.setFailure(ex.getLocalizedMessage());
+                }
+            } finally {
+                admissionController.release(admission, observedCacheBytes);
+            }
+        }
+        return status;
+    }
+
+    @Override
+    public boolean joinSources(File dest, List<PDFSource> sources, MergeOptions options) {
+        List<File> files = new ArrayList<>(sources.size());
+        for (PDFSource source : sources) {
+            if (source.getFile() == null) {
+                return mergeSources(dest, new AtomicFileWriter(options.getWriteBufferSize(), options.getDurability()), sources, options);
+            }
+            files.add(source.getFile());
+        }
+        // nothing needs staging, so the files get the full treatment, job cache and repair included:
+        return joinPDFs(dest, files, options);
+    }
+
+    @Override
+    public boolean joinSources(OutputStream out, List<PDFSource> sources, MergeOptions options) {
+        if (options.isSharded()) {
+            throw new IllegalArgumentException("Output split into parts needs a destination file, not a stream");
+        }
+        return mergeSources(null, new StreamOutputWriter(out, options.getWriteBufferSize()), sources, options);
+    }
+
+    @Override
+    public MergeReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Pre-flights and validates all sources in parallel, so bad inputs are
+     * repaired or dealt with according to the options before any real work,
+     * then converts any non-PDF sources
+     *
+     * @param sources List of File objects representing the sources, in page
+     * order
+     * @param options populated MergeOptions DTO
+     * @param temps list to add the repaired sources, conversions and
+     * placeholders made to
+     * @return List of SourceInfo DTOs for the PDFs to merge, in page order, or
+     * null if the job must stop because of a bad source
+     */
+    private List<SourceInfo> prepareSources(List<File> sources, MergeOptions options, final JobJournal journal, List<File> temps) {
+        List<SourceInfo> prepared = new ArrayList<>(sources.size());
+        DocDetectorConverter converter = new DocDetectorConverterImpl();
+        SourceIndexer indexer = new SourceIndexerImpl();
+        SourceValidator validator = new SourceValidatorImpl(QUARANTINE_DIR);
+        List<SourceInfo> indexed = indexer.indexSources(sources);
+
+        // everything that looks like a PDF is validated, even if the index found a problem, as it may be repairable:
+        List<File> pdfs = new ArrayList<>();
+        for (SourceInfo info : indexed) {
+            if (info.isPdf() && !(info.isEncrypted() && !info.isValid())) {
+                pdfs.add(info.getFile());
+            }
+        }
+        Map<File, SourceValidation> validations = new HashMap<>();
+        List<File> unvalidated = new ArrayList<>();
+        for (File pdf : pdfs) {
+            SourceValidation earlier = journal == null ? null : journal.getValidation(pdf);
+            if (earlier != null) {
+                validations.put(pdf, earlier);
+                lastReport.addValidation(earlier);
+            } else {
+                unvalidated.add(pdf);
+            }
+        }
+        for (SourceValidation validation : validator.validateAll(unvalidated)) {
+            validations.put(validation.getFile(), validation);
+            // the journal keeps its own copy, so ours can go when the job is done:
+            if (validation.getRepairedFile() != null) {
+                temps.add(validation.getRepairedFile());
+            }
+            lastReport.addValidation(validation);
+            if (journal != null) {
+                try {
+                    journal.recordValidation(validation);
+                } catch (IOException ex) {
+                    LOGGER.log(Level.WARNING, "Could not record the validation of " + validation.getFile().getName() + " in the journal", ex);
+                }
+            }
+        }
+
+        if (options.getBadSourcePolicy() == MergeOptions.BAD_SOURCE_FAIL_FAST) {
+            // stop before any conversion work is wasted:
+            boolean bad = false;
+            for (SourceInfo info : indexed) {
+                SourceValidation validation = validations.get(info.getFile());
+                if (validation != null && validation.getStatus() == SourceValidation.STATUS_QUARANTINED) {
+                    lastReport.addRejectedSource(info.getFile().getName() + ": " + validation.getProblem());
+                    bad = true;
+                } else if (validation == null && !info.isValid()) {
+                    lastReport.addRejectedSource(info.getFile().getName() + ": " + info.getErrorMessage());
+                    bad = true;
+                }
+            }
+            if (bad) {
+                return null;
+            }
+        }
+
+        // everything else is converted up front, in parallel:
+        List<File> documents = new ArrayList<>();
+        for (SourceInfo info : indexed) {
+            if (info.isValid() && !validations.containsKey(info.getFile())) {
+                documents.add(info.getFile());
+            }
+        }
+        Map<File, ConversionResult> conversions = new HashMap<>();
+        List<File> unconverted = new ArrayList<>();
+        for (File document : documents) {
+            EventRecorder.Stage event = EventRecorders.get().begin(EventRecorder.STAGE_CONVERSION);
+            File earlier = journal == null ? null : journal.getConversion(document);
+            ConversionResult ahead;
+            if (earlier != null) {
+                ahead = new ConversionResult(true, earlier, converter.detectFileType(document));
+            } else {
+                ahead = claimPreConversion(document);
+                if (ahead != null) {
+                    journalConversion(journal, document, ahead);
+                }
+            }
+            if (ahead != null) {
+                conversions.put(document, ahead);
+                event.setSource(document.getPath());
+                event.setByteSize(document.length());
+                event.setDocumentType(ahead.getSource_file_type());
+                event.setBackend(ahead.getBackend());
+                event.setCacheHit(true);
+                event.setSuccess(true);
+                event.record();
+            } else {
+                unconverted.add(document);
+            }
+        }
+        if (!conversions.isEmpty()) {
+            LOGGER.log(Level.INFO, "Reused {0} of {1} conversions done earlier or in the background", new Object[]{conversions.size(), documents.size()});
+        }
+        // each conversion is recorded as it finishes, so a crash part way through loses as little as possible:
+        List<ConversionResult> converted = converter.attemptConversions(unconverted, journal == null ? null : new DocDetectorConverter.ConversionListener() {
+            @Override
+            public void converted(File file, ConversionResult result) {
+                journalConversion(journal, file, result);
+            }
+        });
+        for (int i = 0; i < unconverted.size(); i++) {
+            conversions.put(unconverted.get(i), converted.get(i));
+            // unlike those reused above, which the background converter or the journal owns, these are the job's own:
+            if (converted.get(i).isSuccess()) {
+                temps.add(converted.get(i).getTempFile());
+            }
+        }
+
+        for (SourceInfo info : indexed) {
+            File file = info.getFile();
+            SourceValidation validation = validations.get(file);
+            if (validation != null) {
+                switch (validation.getStatus()) {
+                    case SourceValidation.STATUS_VALID:
+                        prepared.add(info);
+                        break;
+                    case SourceValidation.STATUS_REPAIRED:
+                        prepared.add(indexer.indexSource(validation.getRepairedFile()));
+                        break;
+                    default:
+                        handleBadSource(file, validation.getProblem(), options, validator, prepared, temps);
+                }
+            } else if (!info.isValid()) {
+                handleBadSource(file, info.getErrorMessage(), options, validator, prepared, temps);
+            } else {
+                //not a PDF... use its conversion...
+                ConversionResult result = conversions.get(file);
+                if (!result.isSuccess()) {
+                    // conversion failed...
+                    if (!handleBadSource(file, "could not be converted to PDF", options, validator, prepared, temps)) {
+                        return null;
+                    }
+                } else {
+                    prepared.add(indexer.indexSource(result.getTempFile()));
+                }
+            }
+        }
+        return prepared;
+    }
+
+    /**
+     * Opens the journal of a job, named after its cache key and destination
+     *
+     * @return JobJournal, or null if it can't be opened, in which case the
+     * job runs without one
+     */
+    private static JobJournal openJournal(String key, File dest, MergeOptions options) {
+        MessageDigest digest = DiskJobCache.newDigest();
+        digest.update((key + "|" + dest.getAbsolutePath()).getBytes(StandardCharsets.UTF_8));
+        try {
+            return new FileJobJournal(new File(JOURNAL_DIR, DiskJobCache.toHex(digest.digest())), options);
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Could not open the job journal; the job will not be resumable", ex);
+            return null;
+        }
+    }
+
+    /**
+     * Fingerprints the pages of all the staged sources in parallel, if the
+     * options ask for duplicate pages to be dropped or shared. They are
+     * already in memory or on local disk, so this reads nothing slow.
+     *
+     * @param sources staged sources, in page order; may contain nulls
+     * @param options populated MergeOptions DTO
+     * @return fingerprints of each source's pages, in the same order, with
+     * null for a source that couldn't be fingerprinted; or null if duplicates
+     * are to be kept
+     */
+    private static List<List<String>> fingerprintPages(List<StagedSource> sources, MergeOptions options) {
+        if (options.getDuplicatePagePolicy() == MergeOptions.DUPLICATE_PAGES_KEEP) {
+            return null;
+        }
+        List<StagedSource> present = new ArrayList<>(sources.size());
+        for (StagedSource s : sources) {
+            if (s != null) {
+                present.add(s);
+            }
+        }
+        long start = System.nanoTime();
+        List<List<String>> found = new PageFingerprinterImpl().fingerprintStaged(present);
+        LOGGER.log(Level.FINE, "Fingerprinted the pages of {0} sources in {1} ms", new Object[]{present.size(), (System.nanoTime() - start) / 1000000});
+        List<List<String>> fingerprints = new ArrayList<>(sources.size());
+        int next = 0;
+        for (StagedSource s : sources) {
+            fingerprints.add(s == null ? null : found.get(next++));
+        }
+        return fingerprints;
+    }
+
+    /**
+     * Simple helper method to log the duplicate pages a merge dealt with
+     */
+    private void logDuplicatePages(MergeOptions options) {
+        if (options.getDuplicatePagePolicy() == MergeOptions.DUPLICATE_PAGES_KEEP) {
+            return;
+        }
+        String action = options.getDuplicatePagePolicy() == MergeOptions.DUPLICATE_PAGES_DROP ? "Left out" : "Shared the content of";
+        LOGGER.log(Level.INFO, "{0} {1} duplicate pages", new Object[]{action, lastReport.getDuplicatePages().size()});
+        for (String description : lastReport.getDuplicatePages()) {
+            LOGGER.log(Level.FINE, description);
+        }
+    }
+
+    /**
+     * Simple helper method to list the files of indexed sources, in order
+     *
+     * @param infos populated SourceInfo DTOs
+     * @return their files
+     */
+    private static List<File> filesOf(List<SourceInfo> infos) {
+        List<File> files = new ArrayList<>(infos.size());
+        for (SourceInfo info : infos) {
+            files.add(info.getFile());
+        }
+        return files;
+    }
+
+    /**
+     * Simple helper method to keep a successful conversion in the journal
+     *
+     * @param journal JobJournal, or null
+     */
+    private static void journalConversion(JobJournal journal, File document, ConversionResult result) {
+        if (journal == null || !result.isSuccess()) {
+            return;
+        }
+        try {
+            journal.recordConversion(document, result.getTempFile());
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Could not record the conversion of " + document.getName() + " in the journal", ex);
+        }
+    }
+
+    /**
+     * Merges the prepared sources of a journaled job into batches kept in the
+     * journal, reusing the batches an earlier run finished. A batch is reused
+     * only if its sources have the same content in the same order. The
+     * batches then stand in for the sources in the final pass, which does the
+     * sharding, image downsampling and so on.
+     *
+     * @param prepared SourceInfo DTOs of the PDFs to merge, in page order
+     * @param journal JobJournal of the job
+     * @return SourceInfo DTOs of the batches, or the prepared sources if the
+     * job is small enough to need only one batch
+     * @throws IOException on read or write failure
+     */
+    private List<SourceInfo> writeBatches(List<SourceInfo> prepared, JobJournal journal, MergeOptions options,
+            RandomAccessStreamCache.StreamCacheCreateFunction streamCache) throws IOException {
+        List<List<SourceInfo>> batches = new ArrayList<>();
+        List<SourceInfo> current = new ArrayList<>();
+        long currentBytes = 0;
+        for (SourceInfo info : prepared) {
+            if (!current.isEmpty() && currentBytes + info.getByteSize() > JOURNAL_BATCH_BYTES) {
+                batches.add(current);
+                current = new ArrayList<>();
+                currentBytes = 0;
+            }
+            current.add(info);
+            currentBytes += info.getByteSize();
+        }
+        batches.add(current);
+        if (batches.size() < 2) {
+            return prepared;
+        }
+        // batches are plain merges; everything the options ask for is done in the final pass:
+        MergeOptions batchOptions = new MergeOptions();
+        batchOptions.setDurability(options.getDurability());
+        batchOptions.setWriteBufferSize(options.getWriteBufferSize());
+        List<SourceInfo> merged = new ArrayList<>(batches.size());
+        int resumed = 0;
+        for (int i = 0; i < batches.size(); i++) {
+            MessageDigest digest = DiskJobCache.newDigest();
+            for (SourceInfo info : batches.get(i)) {
+                digest.update(DiskJobCache.contentHash(info.getFile()).getBytes(StandardCharsets.US_ASCII));
+            }
+            String inputs = DiskJobCache.toHex(digest.digest());
+            File batch = journal.getBatch(i + 1, inputs);
+            if (batch != null) {
+                resumed++;
+            } else {
+                batch = journal.getBatchFile(i + 1);
+                PartWriter batchWriter = new PartWriter(batch, batchOptions, streamCache, null, new MergeReport());
+                List<SourceInfo> batchSources = batches.get(i);
+                try (ReadAheadStager stager = new ReadAheadStager(filesOf(batchSources), READ_AHEAD_DEPTH)) {
+                    for (int j = 0; j < batchSources.size(); j++) {
+                        checkCancelled();
+                        batchWriter.append(stager.take(j), batchSources.get(j).getByteSize());
+                        stager.release(j);
+                    }
+                    batchWriter.finish();
+                } catch (IOException ex) {
+                    batchWriter.abort();
+                    throw ex;
+                }
+                journal.recordBatch(i + 1, inputs);
+            }
+            merged.add(new SourceInfo(batch));
+        }
+        LOGGER.log(Level.INFO, "Merged {0} batches, {1} of them resumed from the journal", new Object[]{batches.size(), resumed});
+        return merged;
+    }
+
+    /**
+     * Simple helper method to take over a conversion started in the
+     * background when the source was added
+     *
+     * @param document Populated Java File reference of source document
+     * @return successful ConversionResult DTO, or null if the join must
+     * convert the document itself
+     */
+    private ConversionResult claimPreConversion(File document) {
+        if (preConverter == null) {
+            return null;
+        }
+        try {
+            return preConverter.claimResult(document);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Merges sources that need not be files. Each source is staged once, in
+     * memory where the options allow, so a stream goes from input to output
+     * without a round trip through the disk. Sources that aren't PDFs are
+     * spilled to files, which the converters need, and converted in parallel.
+     * There is no separate validation pass: a source that can't be parsed is
+     * dealt with by the bad source policy when it is reached. These sources
+     * come from services rather than the GUI, so nothing is shown to the
+     * user.
+     *
+     * @param dest destination file, or null if the output writer writes
+     * elsewhere
+     * @param output OutputWriter to put the merged PDF in place with
+     * @param sources populated PDFSource DTOs, in page order
+     * @param options populated MergeOptions DTO
+     * @return true on success
+     */
+    private boolean mergeSources(File dest, OutputWriter output, List<PDFSource> sources, MergeOptions options) {
+        lastReport = new MergeReport();
+        Linearizer linearizer = new QpdfLinearizer();
+        boolean linearize = options.isLinearize() && linearizer.isAvailable();
+        if (options.isLinearize() && !linearize) {
+            LOGGER.log(Level.WARNING, "Linearized output was requested but qpdf is not available; writing a normal PDF");
+        }
+        DocDetectorConverter converter = new DocDetectorConverterImpl();
+        SourceValidator validator = new SourceValidatorImpl(QUARANTINE_DIR);
+        List<StagedSource> staged = new ArrayList<>();
+        // in page order; null where a source is left out:
+        List<StagedSource> prepared = new ArrayList<>(sources.size());
+        try {
+            List<Integer> documentIndexes = new ArrayList<>();
+            List<File> documents = new ArrayList<>();
+            long memoryLeft = options.getStreamMemoryLimit();
+            for (int i = 0; i < sources.size(); i++) {
+                PDFSource source = sources.get(i);
+                String name = source.getName() != null ? source.getName() : "source " + (i + 1);
+                int type = converter.detectFileType(new File(name));
+                if (type != PDFManager.TYPE_PDF && (type < 0 || !converter.canConvert(type))) {
+                    prepared.add(rejectSource(name, "not a PDF, and cannot be converted to one", options, validator));
+                } else {
+                    try {
+                        StagedSource s = StagedSource.stage(source, type == PDFManager.TYPE_PDF ? Math.max(memoryLeft, 0) : 0);
+                        staged.add(s);
+                        memoryLeft -= s.getHeldBytes();
+                        if (type != PDFManager.TYPE_PDF) {
+                            documentIndexes.add(prepared.size());
+                            documents.add(s.getFile());
+                        }
+                        prepared.add(s);
+                    } catch (IOException ex) {
+                        prepared.add(rejectSource(name, "could not be read: " + ex.getLocalizedMessage(), options, validator));
+                    }
+                }
+                if (prepared.get(prepared.size() - 1) == null && options.getBadSourcePolicy() == MergeOptions.BAD_SOURCE_FAIL_FAST) {
+                    return false;
+                }
+            }
+            List<ConversionResult> converted = converter.attemptConversions(documents);
+            for (int i = 0; i < documents.size(); i++) {
+                int index = documentIndexes.get(i);
+                if (converted.get(i).isSuccess()) {
+                    prepared.set(index, StagedSource.temporary(converted.get(i).getTempFile()));
                 } else {
-                    //not a PDF... check for possible conversion...
-                    ConversionResult result = converter.attemptConversion(file);
-
-                    if (!result.isSuccess()) {
-                        // conversion failed...
-                    } else {
-                        pmu.addSource(result.getTempFile());
-                        sourceCount++;
+                    prepared.set(index, rejectSource(prepared.get(index).getName(), "could not be converted to PDF", options, validator));
+                    if (options.getBadSourcePolicy() == MergeOptions.BAD_SOURCE_FAIL_FAST) {
+                        return false;
+                    }
+                }
+            }
+            return writeStaged(dest, output, prepared, options, linearize ? linearizer : null, validator);
+        } finally {
+            for (StagedSource s : staged) {
+                s.discard();
+            }
+            // conversions and placeholders:
+            for (StagedSource s : prepared) {
+                if (s != null) {
+                    s.discard();
+                }
+            }
+        }
+    }
+
+    /**
+     * Admits and runs the merge of staged sources
+     *
+     * @return true on success
+     */
+    private boolean writeStaged(File dest, OutputWriter output, List<StagedSource> prepared, MergeOptions options,
+            Linearizer linearizer, SourceValidator validator) {
+        long sourceBytes = 0;
+        for (StagedSource s : prepared) {
+            if (s != null) {
+                sourceBytes += s.length();
+            }
+        }
+        Admission admission;
+        try {
+            // page counts aren't known until the sources are parsed:
+            admission = admissionController.admit(sourceBytes, 0, options);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            LOGGER.log(Level.INFO, "Merge cancelled while waiting for memory");
+            return false;
+        }
+        lastReport.setSpilledToDisk(admission.isSpillToDisk());
+        lastReport.setQueuedMillis(admission.getQueuedMillis());
+        MeasuredStreamCache measured = admission.isSpillToDisk() ? null : new MeasuredStreamCache();
+        RandomAccessStreamCache.StreamCacheCreateFunction streamCache = measured != null ? measured : IOUtils.createTempFileOnlyStreamCache();
+        PartWriter writer = new PartWriter(dest, output, options, streamCache, linearizer, lastReport);
+        long observedCacheBytes = -1;
+        // the writer keeps sources open until their part is written, so these go afterwards:
+        List<StagedSource> placeholders = new ArrayList<>();
+        try {
+            long start = System.nanoTime();
+            List<List<String>> fingerprints = fingerprintPages(prepared, options);
+            for (int i = 0; i < prepared.size(); i++) {
+                StagedSource s = prepared.get(i);
+                if (s == null) {
+                    continue;
+                }
+                checkCancelled();
+                try {
+                    writer.append(s, s.length(), fingerprints == null ? null : fingerprints.get(i));
+                } catch (PartWriter.UnreadableSourceException ex) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw ex;
+                    }
+                    StagedSource placeholder = rejectSource(s.getName(), ex.getCause().getLocalizedMessage(), options, validator);
+                    if (options.getBadSourcePolicy() == MergeOptions.BAD_SOURCE_FAIL_FAST) {
+                        writer.abort();
+                        return false;
+                    }
+                    if (placeholder != null) {
+                        placeholders.add(placeholder);
+                        writer.append(placeholder, placeholder.length());
                     }
                 }
-            } catch (Exception e) {
-                PDFJoiner.outputExceptionToUser(e);
             }
+            writer.finish();
+            logDuplicatePages(options);
+            if (measured != null) {
+                observedCacheBytes = measured.getPeakBytes();
+            }
+            LOGGER.log(Level.INFO, "Merged {0} pages from {1} streamed sources in {2} ms",
+                    new Object[]{lastReport.getPagesWritten(), lastReport.getSourcesMerged(), (System.nanoTime() - start) / 1000000});
+            return true;
+        } catch (IOException ex) {
+            writer.abort();
+            if (Thread.currentThread().isInterrupted()) {
+                LOGGER.log(Level.INFO, "Merge cancelled; no output was written");
+            } else {
+                LOGGER.log(Level.SEVERE, "Could not merge the sources", ex);
+                lastReport.setFailure(ex.getLocalizedMessage());
+            }
+            return false;
+        } finally {
+            admissionController.release(admission, observedCacheBytes);
+            for (StagedSource placeholder : placeholders) {
+                placeholder.discard();
+            }
+        }
+    }
+
+    /**
+     * Simple helper method to stop a merge between sources once its thread
+     * has been interrupted, eg by cancelling its job
+     *
+     * @throws InterruptedIOException if the merge should stop
+     */
+    private static void checkCancelled() throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Merge cancelled");
         }
+    }
 
-        if (sourceCount > 0) {
-            RandomAccessStreamCache.StreamCacheCreateFunction streamCache = IOUtils.createMemoryOnlyStreamCache();
+    /**
+     * Simple helper method to record a streamed source that can't be merged
+     *
+     * @return a placeholder to merge in its place if the options ask for one,
+     * otherwise null; discard it once merged
+     */
+    private StagedSource rejectSource(String name, String reason, MergeOptions options, SourceValidator validator) {
+        lastReport.addRejectedSource(name + ": " + reason);
+        LOGGER.log(Level.WARNING, "Rejected source {0}: {1}", new Object[]{name, reason});
+        if (options.getBadSourcePolicy() == MergeOptions.BAD_SOURCE_PLACEHOLDER) {
             try {
-                pmu.mergeDocuments(streamCache);
-                status = true;
+                return StagedSource.temporary(validator.createPlaceholder(new File(name), reason));
             } catch (IOException ex) {
-                PDFJoiner.outputExceptionToUser(ex);
+                LOGGER.log(Level.WARNING, "Could not create a placeholder for " + name, ex);
             }
         }
-        return status;
+        return null;
+    }
+
+    /**
+     * Simple helper method to record a source that can't be merged, and put a
+     * placeholder page in its place if the options ask for one
+     *
+     * @return false if the job must stop
+     */
+    private boolean handleBadSource(File file, String reason, MergeOptions options, SourceValidator validator,
+            List<SourceInfo> prepared, List<File> temps) {
+        lastReport.addRejectedSource(file.getName() + ": " + reason);
+        if (options.getBadSourcePolicy() == MergeOptions.BAD_SOURCE_FAIL_FAST) {
+            return false;
+        }
+        if (options.getBadSourcePolicy() == MergeOptions.BAD_SOURCE_PLACEHOLDER) {
+            try {
+                File placeholder = validator.createPlaceholder(file, reason);
+                temps.add(placeholder);
+                prepared.add(new SourceIndexerImpl().indexSource(placeholder));
+            } catch (IOException ex) {
+                LOGGER.log(Level.WARNING, "Could not create a placeholder for " + file.getName(), ex);
+            }
+        }
+        return true;
     }
 
     @Override
     public void loadPDFToView() {
         if (Desktop.isDesktopSupported()) {
             try {
-                Desktop.getDesktop().open(PDFJoiner.destinationFile);
+                // if the output was split into parts, show the first one:
+                File output = PDFJoiner.destinationFile;
+                if (lastReport != null && !lastReport.getOutputFiles().isEmpty()) {
+                    output = lastReport.getOutputFiles().get(0);
+                }
+                Desktop.getDesktop().open(output);
             } catch (IOException ex) {
                 PDFJoiner.outputExceptionToUser(ex);
             }
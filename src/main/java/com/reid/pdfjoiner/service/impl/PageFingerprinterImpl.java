@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import com.reid.pdfjoiner.service.PageFingerprinter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSBoolean;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSNumber;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+
+/**
+ * Fingerprints pages with SHA-256. The content streams are hashed decoded, so
+ * the same drawing compressed differently still matches; everything the
+ * resources refer to is hashed as stored, filters included, as decoding
+ * images would cost far more than it could find. Annotations are hashed the
+ * same way, so pages that look alike but link or comment differently don't
+ * match. Each object is hashed once per document, so fonts and images shared
+ * between pages cost nothing extra.
+ *
+ * @author pmreid
+ */
+public class PageFingerprinterImpl implements PageFingerprinter {
+
+    private static final Logger LOGGER = Logger.getLogger(PageFingerprinterImpl.class.getName());
+    private static final int COPY_BUFFER = 64 * 1024;
+    // keys that point back up the tree; following them would hash the whole document:
+    private static final List<COSName> BACK_POINTERS = Arrays.asList(COSName.PARENT, COSName.P);
+    // marks an object whose hash is still being worked out, to catch loops:
+    private static final byte[] IN_PROGRESS = new byte[0];
+
+    @Override
+    public List<String> fingerprint(File pdf) throws IOException {
+        return fingerprint(StagedSource.of(pdf));
+    }
+
+    @Override
+    public List<List<String>> fingerprintAll(List<File> pdfs) {
+        List<StagedSource> sources = new ArrayList<>(pdfs.size());
+        for (File pdf : pdfs) {
+            sources.add(StagedSource.of(pdf));
+        }
+        return fingerprintStaged(sources);
+    }
+
+    /**
+     * As fingerprintAll, for sources that may be held in memory
+     *
+     * @param sources staged source PDFs
+     * @return fingerprints of each source, in the same order; null for a
+     * source that could not be read
+     */
+    List<List<String>> fingerprintStaged(List<StagedSource> sources) {
+        List<List<String>> results = new ArrayList<>(sources.size());
+        if (sources.isEmpty()) {
+            return results;
+        }
+        int threads = Math.min(sources.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>(sources.size());
+            for (final StagedSource source : sources) {
+                futures.add(pool.submit(new Callable<List<String>>() {
+                    @Override
+                    public List<String> call() throws IOException {
+                        return fingerprint(source);
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException ex) {
+                    // its pages are simply never treated as duplicates; the merge reports it if it really is unreadable
+                    LOGGER.log(Level.WARNING, "Could not fingerprint the pages of " + sources.get(i).getName(), ex.getCause());
+                    results.add(null);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            while (results.size() < sources.size()) {
+                results.add(null);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Fingerprints every page of one source
+     */
+    List<String> fingerprint(StagedSource source) throws IOException {
+        try (PDDocument doc = Loader.loadPDF(source.open(), IOUtils.createMemoryOnlyStreamCache())) {
+            return fingerprint(doc);
+        }
+    }
+
+    /**
+     * Fingerprints every page of a source that is already loaded, eg by the
+     * merge, so that it isn't read twice
+     *
+     * @param doc the loaded source
+     * @return fingerprint of each page, in order
+     * @throws IOException if a stream can't be read
+     */
+    List<String> fingerprint(PDDocument doc) throws IOException {
+        Map<COSBase, byte[]> hashed = new IdentityHashMap<>();
+        List<String> fingerprints = new ArrayList<>(doc.getNumberOfPages());
+        for (PDPage page : doc.getPages()) {
+            MessageDigest digest = DiskJobCache.newDigest();
+            updateBox(digest, page.getMediaBox());
+            updateBox(digest, page.getCropBox());
+            digest.update((byte) (page.getRotation() / 90));
+            if (page.hasContents()) {
+                try (InputStream in = page.getContents()) {
+                    update(digest, in);
+                }
+            }
+            digest.update((byte) 'R');
+            // inherited resources are resolved, so a page matches whichever tree it came from:
+            PDResources resources = page.getResources();
+            digest.update(resources == null ? new byte[0] : hash(resources.getCOSObject(), hashed));
+            digest.update((byte) 'A');
+            COSBase annots = page.getCOSObject().getItem(COSName.ANNOTS);
+            digest.update(annots == null ? new byte[0] : hash(annots, hashed));
+            fingerprints.add(DiskJobCache.toHex(digest.digest()));
+        }
+        return fingerprints;
+    }
+
+    /**
+     * Hashes an object and everything it refers to, except back pointers
+     *
+     * @param object COS object, possibly indirect
+     * @param hashed hashes of the objects of this document done so far
+     * @return SHA-256 of the object
+     */
+    private static byte[] hash(COSBase object, Map<COSBase, byte[]> hashed) throws IOException {
+        COSBase value = object instanceof COSObject ? ((COSObject) object).getObject() : object;
+        if (value == null) {
+            return new byte[]{'n'};
+        }
+        byte[] known = hashed.get(value);
+        if (known == IN_PROGRESS) {
+            // a loop, eg a form XObject whose resources include itself
+            return new byte[]{'l'};
+        } else if (known != null) {
+            return known;
+        }
+        MessageDigest digest = DiskJobCache.newDigest();
+        if (value instanceof COSDictionary) {
+            hashed.put(value, IN_PROGRESS);
+            COSDictionary dict = (COSDictionary) value;
+            digest.update((byte) (value instanceof COSStream ? 's' : 'd'));
+            List<COSName> keys = new ArrayList<>(dict.keySet());
+            Collections.sort(keys);
+            for (COSName key : keys) {
+                if (BACK_POINTERS.contains(key)) {
+                    continue;
+                }
+                digest.update(key.getName().getBytes(StandardCharsets.UTF_8));
+                digest.update(hash(dict.getItem(key), hashed));
+            }
+            if (value instanceof COSStream) {
+                try (InputStream in = ((COSStream) value).createRawInputStream()) {
+                    update(digest, in);
+                }
+            }
+        } else if (value instanceof COSArray) {
+            hashed.put(value, IN_PROGRESS);
+            digest.update((byte) 'a');
+            for (COSBase item : (COSArray) value) {
+                digest.update(hash(item, hashed));
+            }
+        } else if (value instanceof COSName) {
+            digest.update((byte) '/');
+            digest.update(((COSName) value).getName().getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof COSString) {
+            digest.update((byte) '(');
+            digest.update(((COSString) value).getBytes());
+        } else if (value instanceof COSNumber) {
+            digest.update((byte) '#');
+            digest.update(Float.toString(((COSNumber) value).floatValue()).getBytes(StandardCharsets.US_ASCII));
+        } else if (value instanceof COSBoolean) {
+            digest.update((byte) (((COSBoolean) value).getValue() ? 't' : 'f'));
+        } else {
+            digest.update((byte) 'n');
+        }
+        byte[] result = digest.digest();
+        hashed.put(value, result);
+        return result;
+    }
+
+    private static void updateBox(MessageDigest digest, PDRectangle box) {
+        String corners = box.getLowerLeftX() + "," + box.getLowerLeftY() + "," + box.getUpperRightX() + "," + box.getUpperRightY() + ";";
+        digest.update(corners.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void update(MessageDigest digest, InputStream in) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+    }
+}
@@ -0,0 +1,509 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import com.reid.pdfjoiner.PDFJoiner;
+import com.reid.pdfjoiner.primitive.MergeOptions;
+import com.reid.pdfjoiner.primitive.MergeReport;
+import com.reid.pdfjoiner.service.EventRecorder;
+import com.reid.pdfjoiner.service.ImageOptimiser;
+import com.reid.pdfjoiner.service.Linearizer;
+import com.reid.pdfjoiner.service.OutputWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessStreamCache;
+import org.apache.pdfbox.multipdf.PDFMergerUtility;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDDocumentInformation;
+import org.apache.pdfbox.pdmodel.PDPage;
+
+/**
+ * Assembles the merged output one source at a time, in a single pass. When
+ * the options set a maximum part size or page count, the output is written as
+ * consecutive numbered parts (out-001.pdf, out-002.pdf, ...) as soon as each
+ * part is full, so only one part is ever held open. Part boundaries fall
+ * between sources unless a single source is bigger than a whole part, in which
+ * case it is split between pages. Pages are always cloned into the part, so a
+ * part never shares objects with a source or another part.
+ *
+ * @author pmreid
+ */
+class PartWriter {
+
+    private static final Logger LOGGER = Logger.getLogger(PartWriter.class.getName());
+    private final File dest;
+    private final MergeOptions options;
+    private final RandomAccessStreamCache.StreamCacheCreateFunction streamCache;
+    private final Linearizer linearizer;
+    private final MergeReport report;
+    private final PDFMergerUtility pmu = new PDFMergerUtility();
+    private final ImageOptimiser imageOptimiser = new ImageOptimiserImpl();
+    private final PageFingerprinterImpl fingerprinter = new PageFingerprinterImpl();
+    private final OutputWriter outputWriter;
+    // sources whose objects are referenced by the current part; they must stay open until it is saved:
+    private final List<PDDocument> openSources = new ArrayList<>();
+    private PDDocument part;
+    private int partPages;
+    private long partBytes;
+    private int partNumber;
+    // first page seen with each fingerprint in the whole job, for DUPLICATE_PAGES_DROP:
+    private final Map<String, String> firstSeen = new HashMap<>();
+    // first page in the current part with each fingerprint, for DUPLICATE_PAGES_REFERENCE:
+    private final Map<String, PDPage> partPagesByFingerprint = new HashMap<>();
+    private final Map<String, String> partPageNames = new HashMap<>();
+    private String idSeed = "";
+
+    /**
+     * @param dest final destination; for sharded output, parts are named
+     * after it
+     * @param options populated MergeOptions DTO
+     * @param streamCache stream cache for the sources and parts
+     * @param linearizer Linearizer to post-process each part with, or null
+     * @param report MergeReport DTO to record output files and page counts in
+     */
+    PartWriter(File dest, MergeOptions options, RandomAccessStreamCache.StreamCacheCreateFunction streamCache,
+            Linearizer linearizer, MergeReport report) {
+        this(dest, new AtomicFileWriter(options.getWriteBufferSize(), options.getDurability()), options, streamCache, linearizer, report);
+    }
+
+    /**
+     * @param dest final destination, or null if the output writer sends the
+     * output somewhere other than a file, in which case it can't be sharded
+     * @param outputWriter OutputWriter to put each part in place with
+     * @param options populated MergeOptions DTO
+     * @param streamCache stream cache for the sources and parts
+     * @param linearizer Linearizer to post-process each part with, or null
+     * @param report MergeReport DTO to record output files and page counts in
+     */
+    PartWriter(File dest, OutputWriter outputWriter, MergeOptions options, RandomAccessStreamCache.StreamCacheCreateFunction streamCache,
+            Linearizer linearizer, MergeReport report) {
+        this.dest = dest;
+        this.outputWriter = outputWriter;
+        this.options = options;
+        this.streamCache = streamCache;
+        this.linearizer = linearizer;
+        this.report = report;
+    }
+
+    /**
+     * @param idSeed value the document IDs of deterministic output are
+     * derived from, eg the job cache key
+     */
+    void setIdSeed(String idSeed) {
+        this.idSeed = idSeed;
+    }
+
+    /**
+     * Adds every page of a source PDF to the output, starting a new part first
+     * if the source would not fit in the current one
+     *
+     * @param pdf Populated Java File reference of the source PDF
+     * @param byteSize size of the source, used to estimate the part size
+     * @throws IOException on read or write failure
+     */
+    void append(File pdf, long byteSize) throws IOException {
+        append(StagedSource.of(pdf), byteSize);
+    }
+
+    /**
+     * As append(File, long), for a source that may be held in memory. If the
+     * source can't be parsed, nothing is added and the IOException is thrown
+     * before anything else is done. Pages that duplicate earlier ones are
+     * dealt with as the options' duplicate page policy says; the source is
+     * fingerprinted once loaded, so it is only read once.
+     *
+     * @param pdf staged source PDF
+     * @param byteSize size of the source, used to estimate the part size
+     * @throws UnreadableSourceException if the source can't be parsed
+     * @throws IOException on read or write failure
+     */
+    void append(StagedSource pdf, long byteSize) throws IOException {
+        append(pdf, byteSize, null);
+    }
+
+    /**
+     * As append(StagedSource, long), with the fingerprints of the source's
+     * pages worked out ahead of time, eg in parallel with the merge of the
+     * sources before it
+     *
+     * @param pdf staged source PDF
+     * @param byteSize size of the source, used to estimate the part size
+     * @param fingerprints fingerprint of each page of the source, from a
+     * PageFingerprinter, or null to fingerprint it here if the duplicate page
+     * policy needs it
+     * @throws UnreadableSourceException if the source can't be parsed
+     * @throws IOException on read or write failure
+     */
+    void append(StagedSource pdf, long byteSize, List<String> fingerprints) throws IOException {
+        EventRecorder.Stage event = EventRecorders.get().begin(EventRecorder.STAGE_PAGE_IMPORT);
+        event.setSource(pdf.getName());
+        event.setByteSize(byteSize);
+        try {
+            PDDocument src = load(pdf);
+            int pages = src.getNumberOfPages();
+            if (fingerprints == null || fingerprints.size() != pages) {
+                // not done ahead, or the source has changed since:
+                fingerprints = fingerprint(pdf.getName(), src);
+            }
+            List<Integer> kept = keptPages(pdf.getName(), src, fingerprints);
+            int keptPages = kept.size();
+            long keptBytes = byteSize * keptPages / Math.max(pages, 1);
+            event.setPageCount(keptPages);
+            if (keptPages < pages) {
+                removePagesExcept(src, kept);
+            }
+            // a full part is written out here, which is recorded as an output write within this import:
+            if (partPages > 0 && keptPages > 0 && !fits(keptPages, keptBytes)) {
+                finishPart();
+            }
+            if (keptPages == 0) {
+                IOUtils.closeQuietly(src);
+            } else if (fits(keptPages, keptBytes)) {
+                appendDocument(src, keptPages, keptBytes, pdf.getName(), kept, fingerprints);
+            } else {
+                // bigger than a whole part on its own, so it has to be split between pages:
+                IOUtils.closeQuietly(src);
+                long pageBytes = keptBytes / keptPages;
+                int from = 0;
+                while (from < keptPages) {
+                    if (partPages > 0 && !fits(1, pageBytes)) {
+                        finishPart();
+                    }
+                    int to = from + 1;
+                    while (to < keptPages && fits(to - from + 1, (to - from + 1) * pageBytes)) {
+                        to++;
+                    }
+                    // a fresh copy for each chunk, so every part owns its own clone of the pages:
+                    PDDocument chunk = load(pdf);
+                    List<Integer> chunkPages = kept.subList(from, to);
+                    removePagesExcept(chunk, chunkPages);
+                    appendDocument(chunk, to - from, (to - from) * pageBytes, pdf.getName(), chunkPages, fingerprints);
+                    from = to;
+                }
+            }
+            report.setSourcesMerged(report.getSourcesMerged() + 1);
+            event.setSuccess(true);
+        } finally {
+            event.record();
+        }
+    }
+
+    /**
+     * Simple helper method to parse a source, closing what was opened if it
+     * can't be parsed
+     */
+    private PDDocument load(StagedSource pdf) throws IOException {
+        RandomAccessRead input = pdf.open();
+        try {
+            return Loader.loadPDF(input, streamCache);
+        } catch (IOException | RuntimeException ex) {
+            IOUtils.closeQuietly(input);
+            throw new UnreadableSourceException(pdf.getName() + " could not be read: " + ex.getLocalizedMessage(), ex);
+        }
+    }
+
+    /**
+     * Simple helper method to fingerprint the pages of a loaded source, if
+     * the duplicate page policy needs it
+     *
+     * @return fingerprint of each page, or null if duplicates are kept or the
+     * source couldn't be fingerprinted, in which case its pages are never
+     * treated as duplicates
+     */
+    private List<String> fingerprint(String name, PDDocument src) {
+        if (options.getDuplicatePagePolicy() == MergeOptions.DUPLICATE_PAGES_KEEP) {
+            return null;
+        }
+        try {
+            return fingerprinter.fingerprint(src);
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Could not fingerprint the pages of " + name, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Imports the pages of a loaded source into the current part. When the
+     * duplicate page policy is REFERENCE, each imported page that matches one
+     * already in the part is then pointed at that page's content and
+     * resources, and its own copies are left unreferenced, so they are not
+     * saved.
+     *
+     * @param name name of the source, for the report
+     * @param sourcePages page numbers in the source, from 0, of the pages
+     * left in src
+     * @param fingerprints fingerprint of each page of the whole source, or
+     * null
+     */
+    private void appendDocument(PDDocument src, int pages, long bytes, String name, List<Integer> sourcePages,
+            List<String> fingerprints) throws IOException {
+        openSources.add(src);
+        if (part == null) {
+            part = new PDDocument(streamCache);
+        }
+        int first = part.getNumberOfPages();
+        pmu.appendDocument(part, src);
+        partPages += pages;
+        partBytes += bytes;
+        if (fingerprints == null || options.getDuplicatePagePolicy() != MergeOptions.DUPLICATE_PAGES_REFERENCE) {
+            return;
+        }
+        for (int i = 0; i < sourcePages.size(); i++) {
+            String fingerprint = fingerprints.get(sourcePages.get(i));
+            String description = name + " page " + (sourcePages.get(i) + 1);
+            PDPage page = part.getPage(first + i);
+            PDPage original = partPagesByFingerprint.get(fingerprint);
+            if (original == null) {
+                partPagesByFingerprint.put(fingerprint, page);
+                partPageNames.put(fingerprint, description);
+            } else {
+                COSDictionary target = page.getCOSObject();
+                target.setItem(COSName.CONTENTS, original.getCOSObject().getItem(COSName.CONTENTS));
+                target.setItem(COSName.RESOURCES, original.getCOSObject().getItem(COSName.RESOURCES));
+                report.addDuplicatePage(description + " shares the content of " + partPageNames.get(fingerprint));
+            }
+        }
+    }
+
+    /**
+     * Works out which pages of a source go into the output. When the
+     * duplicate page policy is DROP, a page that matches one seen earlier in
+     * the job is left out, unless it has annotations: links and form fields
+     * elsewhere in the document may point at it.
+     *
+     * @param name name of the source, for the report
+     * @param src the loaded source
+     * @param fingerprints fingerprint of each page of the source, or null
+     * @return page numbers, from 0, of the pages to import
+     */
+    private List<Integer> keptPages(String name, PDDocument src, List<String> fingerprints) {
+        int pages = src.getNumberOfPages();
+        List<Integer> kept = new ArrayList<>(pages);
+        boolean drop = options.getDuplicatePagePolicy() == MergeOptions.DUPLICATE_PAGES_DROP;
+        for (int i = 0; i < pages; i++) {
+            if (fingerprints != null && drop) {
+                String description = name + " page " + (i + 1);
+                String earlier = firstSeen.get(fingerprints.get(i));
+                if (earlier == null) {
+                    firstSeen.put(fingerprints.get(i), description);
+                } else if (!src.getPage(i).getCOSObject().containsKey(COSName.ANNOTS)) {
+                    report.addDuplicatePage(description + " left out: same as " + earlier);
+                    continue;
+                }
+            }
+            kept.add(i);
+        }
+        return kept;
+    }
+
+    /**
+     * Simple helper method to remove all but the given pages from a loaded
+     * source
+     *
+     * @param doc the loaded source
+     * @param keep page numbers, from 0, of the pages to keep, in order
+     */
+    private static void removePagesExcept(PDDocument doc, List<Integer> keep) {
+        Set<Integer> wanted = new HashSet<>(keep);
+        for (int i = doc.getNumberOfPages() - 1; i >= 0; i--) {
+            if (!wanted.contains(i)) {
+                doc.removePage(i);
+            }
+        }
+    }
+
+    /**
+     * Writes out whatever is in the current part and releases all sources
+     *
+     * @throws IOException on write failure
+     */
+    void finish() throws IOException {
+        try {
+            finishPart();
+        } finally {
+            closeSources();
+        }
+    }
+
+    /**
+     * Releases everything without writing, eg after a failure
+     */
+    void abort() {
+        IOUtils.closeQuietly(part);
+        part = null;
+        partPagesByFingerprint.clear();
+        partPageNames.clear();
+        closeSources();
+    }
+
+    private boolean fits(int pages, long bytes) {
+        boolean pagesFit = options.getMaxPartPages() <= MergeOptions.UNLIMITED || partPages + pages <= options.getMaxPartPages();
+        boolean bytesFit = options.getMaxPartBytes() <= MergeOptions.UNLIMITED || partBytes + bytes <= options.getMaxPartBytes();
+        return pagesFit && bytesFit;
+    }
+
+    /**
+     * Downsamples the current part's images if requested, saves it, then
+     * closes it and the sources it used
+     *
+     * @throws IOException on write failure
+     */
+    private void finishPart() throws IOException {
+        if (part == null) {
+            return;
+        }
+        File target = options.isSharded() ? partFile(dest, ++partNumber) : dest;
+        EventRecorder.Stage event = EventRecorders.get().begin(EventRecorder.STAGE_OUTPUT_WRITE);
+        event.setSource(target == null ? "(stream)" : target.getPath());
+        event.setPageCount(partPages);
+        try {
+            // the sources are still open here, so images can be decoded:
+            imageOptimiser.optimise(part, options, report);
+            if (options.isDeterministic()) {
+                fixIdAndDates();
+            }
+            if (linearizer != null) {
+                // hidden, next to the target so it can be renamed into place; without a destination file, the default temp directory:
+                File tmp = target == null ? File.createTempFile("PDFJoiner_", "." + PDFJoiner.SUFFIX)
+                        : AtomicFileWriter.createTemp(target).toFile();
+                File linearized = target == null ? File.createTempFile("PDFJoiner_", "." + PDFJoiner.SUFFIX)
+                        : AtomicFileWriter.createTemp(target).toFile();
+                try {
+                    part.save(tmp);
+                    linearizer.linearize(tmp, linearized);
+                    outputWriter.install(linearized, target);
+                } finally {
+                    tmp.delete();
+                    linearized.delete();
+                }
+            } else {
+                final PDDocument doc = part;
+                outputWriter.write(target, new OutputWriter.Content() {
+                    @Override
+                    public void writeTo(OutputStream out) throws IOException {
+                        doc.save(out);
+                    }
+                });
+            }
+            event.setSuccess(true);
+        } finally {
+            IOUtils.closeQuietly(part);
+            part = null;
+            // pages in different parts can't share objects:
+            partPagesByFingerprint.clear();
+            partPageNames.clear();
+            closeSources();
+            if (target != null) {
+                event.setByteSize(target.length());
+            }
+            event.record();
+        }
+        if (target != null) {
+            report.addOutputFile(target);
+        }
+        report.setPagesWritten(report.getPagesWritten() + partPages);
+        partPages = 0;
+        partBytes = 0;
+    }
+
+    /**
+     * Replaces everything PDFBox would otherwise base on the clock, so the
+     * same job always writes the same bytes. The dates come from the
+     * SOURCE_DATE_EPOCH environment variable if set, as for reproducible
+     * builds, otherwise the epoch.
+     */
+    private void fixIdAndDates() {
+        Calendar fixed = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        String epoch = System.getenv("SOURCE_DATE_EPOCH");
+        long seconds = 0;
+        if (epoch != null) {
+            try {
+                seconds = Long.parseLong(epoch.trim());
+            } catch (NumberFormatException ex) {
+                seconds = 0;
+            }
+        }
+        fixed.setTimeInMillis(seconds * 1000);
+        PDDocumentInformation info = part.getDocumentInformation();
+        info.setCreationDate(fixed);
+        info.setModificationDate(fixed);
+
+        MessageDigest digest = DiskJobCache.newDigest();
+        digest.update((idSeed + ":" + partNumber).getBytes(StandardCharsets.US_ASCII));
+        // IDs are conventionally 16 bytes; both halves match, as for a newly created file:
+        byte[] id = Arrays.copyOf(digest.digest(), 16);
+        COSArray ids = new COSArray();
+        ids.add(new COSString(id));
+        ids.add(new COSString(id));
+        part.getDocument().getTrailer().setItem(COSName.ID, ids);
+    }
+
+    private void closeSources() {
+        for (PDDocument src : openSources) {
+            IOUtils.closeQuietly(src);
+        }
+        openSources.clear();
+    }
+
+    /**
+     * Works out the name of a numbered part, eg "out.pdf" becomes
+     * "out-001.pdf"
+     *
+     * @param dest final destination the parts are named after
+     * @param number part number, starting at 1
+     * @return Java File reference of the part
+     */
+    static File partFile(File dest, int number) {
+        String name = dest.getName();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "." + PDFJoiner.SUFFIX;
+        return new File(dest.getAbsoluteFile().getParentFile(), String.format("%s-%03d%s", base, number, extension));
+    }
+
+    /**
+     * Thrown when a source can't be parsed, as opposed to a failure to write
+     * the output; nothing has been added to the output when it is thrown
+     */
+    static class UnreadableSourceException extends IOException {
+
+        UnreadableSourceException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import com.reid.pdfjoiner.primitive.ConversionResult;
+import com.reid.pdfjoiner.service.DocDetectorConverter;
+import com.reid.pdfjoiner.service.PreConverter;
+import java.io.File;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ *
+ * @author pmreid
+ */
+public class PreConverterImpl implements PreConverter {
+
+    private static final Logger LOGGER = Logger.getLogger(PreConverterImpl.class.getName());
+    // kept low so that background conversions don't slow down the rest of the desktop:
+    private static final int CONVERT_THREADS = Math.max(1, Integer.getInteger("pdfjoiner.preconvert.threads", 2));
+    private static final int STATE_QUEUED = 0;
+    private static final int STATE_RUNNING = 1;
+    private static final int STATE_WITHDRAWN = 2;
+    private static final int STATE_CANCELLED = 3;
+
+    private final DocDetectorConverter detector = new DocDetectorConverterImpl();
+    private final ThreadPoolExecutor pool;
+    // keyed by absolute path, so that a changed file can still be found and cancelled:
+    private final Map<String, Conversion> conversions = new ConcurrentHashMap<>();
+
+    public PreConverterImpl() {
+        // oldest first, as sources are usually added in the order they will be joined:
+        this.pool = new ThreadPoolExecutor(CONVERT_THREADS, CONVERT_THREADS, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "PDFJoiner-preconvert");
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            }
+        });
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void convertAhead(Collection<File> files) {
+        for (File file : files) {
+            // PDFs need no conversion; anything else is checked by the converter, off this thread:
+            if (detector.checkFileIsPDF(file)) {
+                continue;
+            }
+            String path = file.getAbsolutePath();
+            Conversion existing = conversions.get(path);
+            if (existing != null && existing.lastModified != file.lastModified() && conversions.remove(path, existing)) {
+                existing.cancel();
+            }
+            Conversion conversion = new Conversion(file);
+            if (conversions.putIfAbsent(path, conversion) == null) {
+                pool.execute(conversion.task);
+            }
+        }
+    }
+
+    @Override
+    public void cancel(Collection<File> files) {
+        for (File file : files) {
+            Conversion conversion = conversions.remove(file.getAbsolutePath());
+            if (conversion != null) {
+                conversion.cancel();
+            }
+        }
+        pool.purge();
+    }
+
+    @Override
+    public ConversionResult claimResult(File file) throws InterruptedException {
+        String path = file.getAbsolutePath();
+        Conversion conversion = conversions.get(path);
+        if (conversion == null) {
+            return null;
+        }
+        if (conversion.lastModified != file.lastModified()) {
+            // converted from an older version of the file:
+            if (conversions.remove(path, conversion)) {
+                conversion.cancel();
+            }
+            return null;
+        }
+        if (conversion.state.compareAndSet(STATE_QUEUED, STATE_WITHDRAWN)) {
+            conversions.remove(path, conversion);
+            pool.remove(conversion.task);
+            return null;
+        }
+        try {
+            ConversionResult result = conversion.task.get();
+            // a failed conversion is left for the caller to retry:
+            return result != null && result.isSuccess() ? result : null;
+        } catch (CancellationException ex) {
+            return null;
+        } catch (ExecutionException ex) {
+            LOGGER.log(Level.FINE, "Background conversion of " + file + " failed", ex.getCause());
+            return null;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Simple helper method to delete the PDF of a conversion nobody will use
+     *
+     * @param result ConversionResult DTO, may be null
+     */
+    private static void discard(ConversionResult result) {
+        if (result != null && result.getTempFile() != null && !result.getTempFile().delete() && result.getTempFile().exists()) {
+            LOGGER.log(Level.FINE, "Could not delete {0}", result.getTempFile());
+        }
+    }
+
+    /**
+     * One source's conversion. The state decides who owns the work: the
+     * background thread only starts it if it is still queued, and a joining
+     * thread can withdraw it up to that point.
+     */
+    private class Conversion {
+
+        private final File file;
+        private final long lastModified;
+        private final AtomicInteger state = new AtomicInteger(STATE_QUEUED);
+        private final FutureTask<ConversionResult> task;
+
+        Conversion(final File file) {
+            this.file = file;
+            this.lastModified = file.lastModified();
+            this.task = new FutureTask<>(new Callable<ConversionResult>() {
+                @Override
+                public ConversionResult call() {
+                    if (!state.compareAndSet(STATE_QUEUED, STATE_RUNNING)) {
+                        return null;
+                    }
+                    ConversionResult result = detector.attemptConversion(file);
+                    if (state.get() == STATE_CANCELLED) {
+                        discard(result);
+                        return null;
+                    }
+                    LOGGER.log(Level.FINE, "Converted {0} ahead of the join", file.getName());
+                    return result;
+                }
+            });
+        }
+
+        void cancel() {
+            state.set(STATE_CANCELLED);
+            task.cancel(true);
+            pool.remove(task);
+            if (task.isDone() && !task.isCancelled()) {
+                try {
+                    discard(task.get());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    LOGGER.log(Level.FINE, "Background conversion of " + file + " failed", ex.getCause());
+                }
+            }
+        }
+    }
+}
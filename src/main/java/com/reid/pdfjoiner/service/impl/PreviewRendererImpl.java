@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import com.reid.pdfjoiner.service.DocDetectorConverter;
+import com.reid.pdfjoiner.service.PreviewRenderer;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+/**
+ *
+ * @author pmreid
+ */
+public class PreviewRendererImpl implements PreviewRenderer {
+
+    private static final int RENDER_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    private final int targetHeight;
+    private final long maxCacheBytes;
+    private final DocDetectorConverter detector = new DocDetectorConverterImpl();
+    private final ThreadPoolExecutor pool;
+    // access-ordered so that iteration starts at the least recently used entry:
+    private final LinkedHashMap<String, BufferedImage> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private long cacheBytes = 0;
+    private final Map<String, Future<?>> pending = new ConcurrentHashMap<>();
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param targetHeight height of the rendered previews, in pixels
+     * @param maxCacheBytes upper limit on the memory held by cached previews
+     */
+    public PreviewRendererImpl(int targetHeight, long maxCacheBytes) {
+        this.targetHeight = targetHeight;
+        this.maxCacheBytes = maxCacheBytes;
+        // newest requests first, as they are the rows the user has just scrolled to:
+        this.pool = new ThreadPoolExecutor(RENDER_THREADS, RENDER_THREADS, 30, TimeUnit.SECONDS,
+                new LinkedBlockingDeque<Runnable>() {
+            @Override
+            public boolean offer(Runnable r) {
+                return super.offerFirst(r);
+            }
+        }, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "PDFJoiner-preview");
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            }
+        });
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public BufferedImage getCachedPreview(File file) {
+        synchronized (cache) {
+            return cache.get(cacheKey(file));
+        }
+    }
+
+    @Override
+    public void requestPreview(final File file, final Runnable onReady) {
+        final String key = cacheKey(file);
+        if (failed.contains(key) || pending.containsKey(key) || !detector.checkFileIsPDF(file)) {
+            return;
+        }
+        synchronized (cache) {
+            if (cache.containsKey(key)) {
+                return;
+            }
+        }
+        FutureTask<Void> task = new FutureTask<>(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    BufferedImage image = render(file);
+                    store(key, image);
+                    onReady.run();
+                } catch (IOException | RuntimeException ex) {
+                    // a render cancelled by retainOnly fails on the interrupt, but the file may be wanted again later:
+                    if (Thread.currentThread().isInterrupted()) {
+                        Logger.getLogger(PreviewRendererImpl.class.getName()).log(Level.FINE, "Cancelled preview of {0}", file);
+                    } else {
+                        failed.add(key);
+                        Logger.getLogger(PreviewRendererImpl.class.getName()).log(Level.FINE, "Could not render preview of " + file, ex);
+                    }
+                } finally {
+                    pending.remove(key);
+                }
+            }
+        }, null);
+        if (pending.putIfAbsent(key, task) == null) {
+            pool.execute(task);
+        }
+    }
+
+    @Override
+    public void retainOnly(Collection<File> wanted) {
+        Set<String> keep = new HashSet<>();
+        for (File f : wanted) {
+            keep.add(cacheKey(f));
+        }
+        for (Map.Entry<String, Future<?>> entry : pending.entrySet()) {
+            if (!keep.contains(entry.getKey())) {
+                entry.getValue().cancel(true);
+                pending.remove(entry.getKey());
+            }
+        }
+        pool.purge();
+    }
+
+    @Override
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Renders the first page at whatever (low) resolution gives the target
+     * height
+     *
+     * @param file Populated Java File reference of source PDF
+     * @return rendered image
+     * @throws IOException on read failure
+     */
+    private BufferedImage render(File file) throws IOException {
+        try (PDDocument doc = Loader.loadPDF(file, IOUtils.createMemoryOnlyStreamCache())) {
+            if (doc.getNumberOfPages() == 0) {
+                throw new IOException("PDF has no pages");
+            }
+            PDPage page = doc.getPage(0);
+            PDRectangle box = page.getCropBox();
+            float height = (page.getRotation() % 180 == 0) ? box.getHeight() : box.getWidth();
+            float scale = targetHeight / Math.max(height, 1f);
+            return new PDFRenderer(doc).renderImage(0, scale, ImageType.RGB);
+        }
+    }
+
+    /**
+     * Adds an image to the cache, evicting the least recently used images
+     * until it fits in the memory limit
+     */
+    private void store(String key, BufferedImage image) {
+        long size = (long) image.getWidth() * image.getHeight() * 4;
+        synchronized (cache) {
+            BufferedImage previous = cache.put(key, image);
+            if (previous != null) {
+                cacheBytes -= (long) previous.getWidth() * previous.getHeight() * 4;
+            }
+            cacheBytes += size;
+            Iterator<Map.Entry<String, BufferedImage>> it = cache.entrySet().iterator();
+            while (cacheBytes > maxCacheBytes && it.hasNext()) {
+                Map.Entry<String, BufferedImage> eldest = it.next();
+                if (eldest.getKey().equals(key)) {
+                    continue;
+                }
+                cacheBytes -= (long) eldest.getValue().getWidth() * eldest.getValue().getHeight() * 4;
+                it.remove();
+            }
+        }
+    }
+
+    private static String cacheKey(File file) {
+        return file.getAbsolutePath() + "|" + file.lastModified();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import com.reid.pdfjoiner.service.Linearizer;
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.logging.Logger;
+import org.apache.commons.exec.CommandLine;
+import org.apache.commons.exec.DefaultExecutor;
+import org.apache.commons.exec.ExecuteException;
+import org.apache.commons.exec.ExecuteWatchdog;
+
+/**
+ * PDFBox cannot write linearized files, so this hands the finished merge to
+ * the qpdf command-line tool. The location of qpdf can be set with the
+ * "pdfjoiner.qpdf" system property; by default it is looked up on the PATH.
+ *
+ * @author pmreid
+ */
+public class QpdfLinearizer implements Linearizer {
+
+    private static final Logger LOGGER = Logger.getLogger(QpdfLinearizer.class.getName());
+    private static final String QPDF = System.getProperty("pdfjoiner.qpdf", "qpdf");
+    private static final Duration VERSION_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration LINEARIZE_TIMEOUT = Duration.ofMinutes(30);
+    // qpdf exits with 3 when it succeeded but had warnings, eg about a damaged source:
+    private static final int[] SUCCESS_EXIT_VALUES = {0, 3};
+    private static Boolean available;
+
+    @Override
+    public boolean isAvailable() {
+        synchronized (QpdfLinearizer.class) {
+            if (available == null) {
+                try {
+                    run(new CommandLine(QPDF).addArgument("--version"), VERSION_TIMEOUT);
+                    available = true;
+                } catch (IOException ex) {
+                    available = false;
+                }
+            }
+            return available;
+        }
+    }
+
+    @Override
+    public void linearize(File input, File output) throws IOException {
+        CommandLine cmd = new CommandLine(QPDF)
+                .addArgument("--linearize")
+                .addArgument(input.getAbsolutePath(), false)
+                .addArgument(output.getAbsolutePath(), false);
+        try {
+            run(cmd, LINEARIZE_TIMEOUT);
+        } catch (ExecuteException ex) {
+            throw new IOException("qpdf could not linearize " + input.getName() + " (exit code " + ex.getExitValue() + ")", ex);
+        }
+    }
+
+    private static void run(CommandLine cmd, Duration timeout) throws IOException {
+        DefaultExecutor executor = DefaultExecutor.builder().get();
+        executor.setExitValues(SUCCESS_EXIT_VALUES);
+        executor.setWatchdog(ExecuteWatchdog.builder().setTimeout(timeout).get());
+        // otherwise qpdf's output is copied to the console:
+        executor.setStreamHandler(LoggedOutput.handler(LOGGER, "qpdf"));
+        executor.execute(cmd);
+    }
+}
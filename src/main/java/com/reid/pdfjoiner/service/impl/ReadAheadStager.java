@@ -0,0 +1,322 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Copies the sources of a merge that live on network file systems to local
+ * disk ahead of the merger, so that PDFBox's seek-heavy parsing works on a
+ * local file while the network is only ever read sequentially, in large
+ * blocks. At most a fixed number of sources are staged ahead of the one being
+ * merged; local sources are used where they are. A staged copy is deleted as
+ * soon as the merger has released it. Where the platform won't delete a file
+ * that is still open, as on Windows, that happens on close instead.
+ * <p>
+ * If the merge drops or shares duplicate pages, the same threads also
+ * fingerprint each source as soon as it is local, so the fingerprints of the
+ * next few sources are worked out in parallel while the merger is busy with
+ * the current one.
+ *
+ * @author pmreid
+ */
+class ReadAheadStager implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(ReadAheadStager.class.getName());
+    private static final int COPY_BUFFER = 1024 * 1024;
+    // how long close waits for copies in progress to stop before deleting them:
+    private static final long CLOSE_WAIT_MILLIS = 5000;
+    // FileStore types of network file systems, as reported on Linux, macOS and the BSDs:
+    private static final Set<String> NETWORK_TYPES = new HashSet<>(Arrays.asList(
+            "nfs", "nfs4", "cifs", "smb", "smbfs", "smb2", "smb3", "afpfs", "webdav", "davfs", "fuse.davfs2",
+            "fuse.sshfs", "sshfs", "fuse.rclone", "fuse.s3fs", "9p", "ncpfs", "afs", "glusterfs", "fuse.glusterfs",
+            "ceph", "lustre"));
+    // a file store's type doesn't change, so each is only looked at once:
+    private static final Map<FileStore, Boolean> slowStores = new ConcurrentHashMap<>();
+    // for network file systems that report a local type, eg mapped drives on Windows:
+    private static final boolean STAGE_ALL = Boolean.getBoolean("pdfjoiner.readahead.always");
+
+    private final List<File> sources;
+    private final int depth;
+    // how far ahead of the merger to work; the depth, unless only fingerprinting:
+    private final int ahead;
+    private final PageFingerprinterImpl fingerprinter;
+    private final AtomicReferenceArray<List<String>> fingerprints;
+    private final ExecutorService pool;
+    private final Future<?>[] staged;
+    private final File[] copies;
+    private final List<File> undeleted = new ArrayList<>();
+    private File dir;
+    private int scheduled;
+
+    /**
+     * @param sources files the merger will read, in order
+     * @param depth most sources to stage ahead of the one being merged; 0 to
+     * read every source in place
+     */
+    ReadAheadStager(List<File> sources, int depth) {
+        this(sources, depth, null);
+    }
+
+    /**
+     * @param sources files the merger will read, in order
+     * @param depth most sources to stage ahead of the one being merged; 0 to
+     * read every source in place
+     * @param fingerprinter PageFingerprinterImpl to fingerprint the pages of
+     * each source with ahead of the merger, or null not to
+     */
+    ReadAheadStager(List<File> sources, int depth, PageFingerprinterImpl fingerprinter) {
+        this.sources = sources;
+        this.depth = depth;
+        this.fingerprinter = fingerprinter;
+        this.ahead = depth > 0 || fingerprinter == null ? depth : Runtime.getRuntime().availableProcessors();
+        this.staged = new Future<?>[sources.size()];
+        this.copies = new File[sources.size()];
+        this.fingerprints = new AtomicReferenceArray<>(sources.size());
+        this.pool = ahead > 0 ? Executors.newFixedThreadPool(ahead, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "PDFJoiner-readahead");
+                t.setDaemon(true);
+                return t;
+            }
+        }) : null;
+        scheduleUpTo(ahead);
+    }
+
+    /**
+     * Gets a source ready to be merged, waiting for its copy if it is being
+     * staged, and starts staging the sources after it
+     *
+     * @param index position of the source in the list
+     * @return the local copy, named after the source, or the source itself if
+     * it wasn't staged or the copy failed
+     * @throws InterruptedIOException if interrupted while waiting
+     */
+    StagedSource take(int index) throws InterruptedIOException {
+        scheduleUpTo(index + 1 + ahead);
+        File source = sources.get(index);
+        Future<?> future = staged[index];
+        if (future == null) {
+            return StagedSource.of(source);
+        }
+        try {
+            future.get();
+            // only fingerprinted:
+            if (copies[index] == null) {
+                return StagedSource.of(source);
+            }
+            return StagedSource.of(source.getName(), copies[index]);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while staging " + source.getName());
+        } catch (ExecutionException ex) {
+            // reading it in place is slower, but still works:
+            LOGGER.log(Level.WARNING, "Could not stage " + source + "; reading it in place", ex.getCause());
+            discard(index);
+            return StagedSource.of(source);
+        }
+    }
+
+    /**
+     * Deletes the staged copy of a source the merger has finished with
+     *
+     * @param index position of the source in the list
+     */
+    void release(int index) {
+        discard(index);
+        fingerprints.set(index, null);
+    }
+
+    /**
+     * @param index position of a source that take has returned
+     * @return fingerprint of each of its pages, or null if it wasn't
+     * fingerprinted or that failed
+     */
+    List<String> getFingerprints(int index) {
+        return fingerprints.get(index);
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+            try {
+                // a copy finishing after this would otherwise be left behind:
+                pool.awaitTermination(CLOSE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (int i = 0; i < staged.length; i++) {
+            if (staged[i] != null) {
+                staged[i].cancel(true);
+                discard(i);
+            }
+        }
+        synchronized (undeleted) {
+            for (File f : undeleted) {
+                if (!f.delete() && f.exists()) {
+                    f.deleteOnExit();
+                }
+            }
+            undeleted.clear();
+        }
+        if (dir != null && !dir.delete() && dir.exists()) {
+            dir.deleteOnExit();
+        }
+    }
+
+    /**
+     * Simple helper method to decide whether a file is on a file system slow
+     * enough to be worth staging
+     *
+     * @param file Populated Java File reference
+     * @return true if the file should be copied to local disk before parsing
+     */
+    static boolean isSlow(File file) {
+        if (STAGE_ALL) {
+            return true;
+        }
+        // Windows UNC paths, eg \\server\share\file.pdf:
+        if (file.getPath().startsWith("\\\\")) {
+            return true;
+        }
+        try {
+            FileStore store = Files.getFileStore(file.toPath());
+            Boolean slow = slowStores.get(store);
+            if (slow == null) {
+                slow = NETWORK_TYPES.contains(store.type().toLowerCase());
+                slowStores.put(store, slow);
+            }
+            return slow;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Starts staging the slow sources, and fingerprinting all of them if
+     * asked, before the given position that haven't been started yet
+     */
+    private void scheduleUpTo(int end) {
+        if (pool == null) {
+            return;
+        }
+        end = Math.min(end, sources.size());
+        while (scheduled < end) {
+            final int index = scheduled++;
+            final File source = sources.get(index);
+            final boolean stage = depth > 0 && isSlow(source);
+            if (!stage && fingerprinter == null) {
+                continue;
+            }
+            staged[index] = pool.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    File local = source;
+                    if (stage) {
+                        copies[index] = copy(source, index);
+                        local = copies[index];
+                    }
+                    if (fingerprinter != null) {
+                        fingerprints.set(index, fingerprint(source.getName(), local));
+                    }
+                    return null;
+                }
+            });
+        }
+    }
+
+    /**
+     * Simple helper method to fingerprint the pages of a local source
+     *
+     * @return fingerprints, or null if they couldn't be worked out, in which
+     * case the merger does it
+     */
+    private List<String> fingerprint(String name, File local) {
+        try {
+            return fingerprinter.fingerprint(StagedSource.of(name, local));
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.log(Level.FINE, "Could not fingerprint the pages of " + name + " ahead of the merge", ex);
+            return null;
+        }
+    }
+
+    /**
+     * Copies one source to the staging directory with large sequential reads
+     */
+    private File copy(File source, int index) throws IOException {
+        File local = new File(stagingDir(), String.format("%06d-%s", index, source.getName()));
+        byte[] buffer = new byte[COPY_BUFFER];
+        try (InputStream in = Files.newInputStream(source.toPath());
+                OutputStream out = Files.newOutputStream(local.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException ex) {
+            local.delete();
+            throw ex;
+        }
+        return local;
+    }
+
+    private synchronized File stagingDir() throws IOException {
+        if (dir == null) {
+            dir = Files.createTempDirectory("PDFJoiner-readahead").toFile();
+        }
+        return dir;
+    }
+
+    private void discard(int index) {
+        File copy = copies[index];
+        copies[index] = null;
+        staged[index] = null;
+        if (copy != null && !copy.delete() && copy.exists()) {
+            // still open, eg on Windows; tried again on close
+            synchronized (undeleted) {
+                undeleted.add(copy);
+            }
+        }
+    }
+}
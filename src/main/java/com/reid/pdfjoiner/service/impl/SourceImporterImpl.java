@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import com.reid.pdfjoiner.service.DocDetectorConverter;
+import com.reid.pdfjoiner.service.PDFManager;
+import com.reid.pdfjoiner.service.SourceImporter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ *
+ * @author pmreid
+ */
+public class SourceImporterImpl implements SourceImporter {
+
+    // directory listing is I/O bound, so use more threads than cores:
+    private static final int WALK_THREADS = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final DocDetectorConverter detector = new DocDetectorConverterImpl();
+    private final boolean acceptOfficeFormats;
+
+    /**
+     * @param acceptOfficeFormats true to import Word, PowerPoint etc files as
+     * well, where a converter backend for them is available; otherwise only
+     * PDFs are imported
+     */
+    public SourceImporterImpl(boolean acceptOfficeFormats) {
+        this.acceptOfficeFormats = acceptOfficeFormats;
+    }
+
+    @Override
+    public List<File> importDirectory(File root, int sortOrder) throws IOException {
+        Comparator<File> order;
+        switch (sortOrder) {
+            case SourceImporter.SORT_NAME:
+                order = new Comparator<File>() {
+                    @Override
+                    public int compare(File a, File b) {
+                        return a.getPath().compareToIgnoreCase(b.getPath());
+                    }
+                };
+                break;
+            case SourceImporter.SORT_MODIFIED:
+                // each file is compared many times during the sort, so only stat it once:
+                final Map<File, Long> modified = new ConcurrentHashMap<>();
+                order = new Comparator<File>() {
+                    @Override
+                    public int compare(File a, File b) {
+                        return Long.compare(lastModified(a), lastModified(b));
+                    }
+
+                    private long lastModified(File f) {
+                        Long time = modified.get(f);
+                        if (time == null) {
+                            time = f.lastModified();
+                            modified.put(f, time);
+                        }
+                        return time;
+                    }
+                };
+                break;
+            default:
+                order = new NaturalOrderComparator();
+        }
+        return importDirectory(root, order);
+    }
+
+    @Override
+    public List<File> importDirectory(File root, Comparator<File> order) throws IOException {
+        if (!root.isDirectory() || !root.canRead()) {
+            throw new IOException("Directory cannot be read: " + root.getAbsolutePath());
+        }
+        ForkJoinPool pool = new ForkJoinPool(WALK_THREADS);
+        try {
+            List<File> found = pool.invoke(new DirectoryWalk(root.toPath()));
+            File[] sorted = found.toArray(new File[found.size()]);
+            Arrays.parallelSort(sorted, order);
+            return new ArrayList<>(Arrays.asList(sorted));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Simple helper method to decide whether a file should be imported
+     *
+     * @param path path of a regular file
+     * @return true if the file is visible and of a supported type
+     */
+    private boolean isAcceptable(Path path) {
+        String name = path.getFileName().toString();
+        if (name.startsWith(".")) {
+            return false;
+        }
+        try {
+            if (Files.isHidden(path)) {
+                return false;
+            }
+        } catch (IOException ex) {
+            return false;
+        }
+        int type = detector.detectFileType(path.toFile());
+        return type == PDFManager.TYPE_PDF || (type > -1 && acceptOfficeFormats && detector.canConvert(type));
+    }
+
+    /**
+     * Lists one directory, forking a sub-task for each sub-directory so that
+     * the tree is walked in parallel. Symbolic links to directories are not
+     * followed, to avoid loops.
+     */
+    private class DirectoryWalk extends RecursiveTask<List<File>> {
+
+        private final Path dir;
+
+        DirectoryWalk(Path dir) {
+            this.dir = dir;
+        }
+
+        @Override
+        protected List<File> compute() {
+            List<File> files = new ArrayList<>();
+            List<DirectoryWalk> subTasks = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path entry : entries) {
+                    BasicFileAttributes attrs = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    if (attrs.isDirectory()) {
+                        if (!entry.getFileName().toString().startsWith(".")) {
+                            DirectoryWalk sub = new DirectoryWalk(entry);
+                            sub.fork();
+                            subTasks.add(sub);
+                        }
+                    } else if (attrs.isRegularFile() && isAcceptable(entry)) {
+                        files.add(entry.toFile());
+                    }
+                }
+            } catch (IOException ex) {
+                Logger.getLogger(SourceImporterImpl.class.getName()).log(Level.WARNING, "Skipping unreadable directory " + dir, ex);
+            }
+            for (DirectoryWalk sub : subTasks) {
+                files.addAll(sub.join());
+            }
+            return files;
+        }
+    }
+
+    /**
+     * Compares file paths so that runs of digits are compared by numeric
+     * value, eg "page2" before "page10", and letters ignoring case
+     */
+    static class NaturalOrderComparator implements Comparator<File> {
+
+        @Override
+        public int compare(File a, File b) {
+            return compareNatural(a.getPath(), b.getPath());
+        }
+
+        static int compareNatural(String a, String b) {
+            int i = 0;
+            int j = 0;
+            while (i < a.length() && j < b.length()) {
+                char ca = a.charAt(i);
+                char cb = b.charAt(j);
+                if (Character.isDigit(ca) && Character.isDigit(cb)) {
+                    int startA = i;
+                    int startB = j;
+                    while (i < a.length() && Character.isDigit(a.charAt(i))) {
+                        i++;
+                    }
+                    while (j < b.length() && Character.isDigit(b.charAt(j))) {
+                        j++;
+                    }
+                    int result = compareDigits(a.substring(startA, i), b.substring(startB, j));
+                    if (result != 0) {
+                        return result;
+                    }
+                } else {
+                    int result = Character.compare(Character.toLowerCase(ca), Character.toLowerCase(cb));
+                    if (result != 0) {
+                        return result;
+                    }
+                    i++;
+                    j++;
+                }
+            }
+            int result = (a.length() - i) - (b.length() - j);
+            return result != 0 ? result : a.compareTo(b);
+        }
+
+        /**
+         * Compares two runs of digits by value, without parsing them, so that
+         * arbitrarily long numbers work
+         */
+        private static int compareDigits(String a, String b) {
+            String trimmedA = stripLeadingZeros(a);
+            String trimmedB = stripLeadingZeros(b);
+            if (trimmedA.length() != trimmedB.length()) {
+                return trimmedA.length() - trimmedB.length();
+            }
+            int result = trimmedA.compareTo(trimmedB);
+            // "01" after "1", so that the order is still total:
+            return result != 0 ? result : a.length() - b.length();
+        }
+
+        private static String stripLeadingZeros(String digits) {
+            int k = 0;
+            while (k < digits.length() - 1 && digits.charAt(k) == '0') {
+                k++;
+            }
+            return digits.substring(k);
+        }
+    }
+}
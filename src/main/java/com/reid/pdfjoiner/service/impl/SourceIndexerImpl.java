@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import com.reid.pdfjoiner.primitive.SourceInfo;
+import com.reid.pdfjoiner.service.DocDetectorConverter;
+import com.reid.pdfjoiner.service.EventRecorder;
+import com.reid.pdfjoiner.service.SourceIndexer;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
+
+/**
+ *
+ * @author pmreid
+ */
+public class SourceIndexerImpl implements SourceIndexer {
+
+    private static final Logger LOGGER = Logger.getLogger(SourceIndexerImpl.class.getName());
+    // the PDF spec allows junk before the header, but readers only look this far:
+    private static final int HEADER_SCAN_BYTES = 1024;
+    private static final int TRAILER_SCAN_BYTES = 2048;
+    // rough cost weightings, expressed as "equivalent bytes", used to plan the merge:
+    private static final long PAGE_COST = 16 * 1024;
+    private static final long CONVERSION_COST_FACTOR = 20;
+
+    private static final int MAX_CACHED = 4096;
+    // shared between instances so the UI and the merge see the same results; least recently used go first:
+    private static final Map<String, SourceInfo> CACHE = Collections.synchronizedMap(new LinkedHashMap<String, SourceInfo>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SourceInfo> eldest) {
+            return size() > MAX_CACHED;
+        }
+    });
+
+    private final DocDetectorConverter detector = new DocDetectorConverterImpl();
+
+    @Override
+    public SourceInfo indexSource(File file) {
+        EventRecorder.Stage event = EventRecorders.get().begin(EventRecorder.STAGE_DETECTION);
+        SourceInfo info = getCachedInfo(file);
+        event.setCacheHit(info != null);
+        if (info == null) {
+            info = readSource(file);
+            CACHE.put(file.getAbsolutePath(), info);
+        }
+        event.setSource(file.getPath());
+        event.setByteSize(info.getByteSize());
+        event.setDocumentType(detector.detectFileType(file));
+        event.setPageCount(info.getPageCount());
+        event.setSuccess(info.isValid());
+        event.record();
+        return info;
+    }
+
+    @Override
+    public List<SourceInfo> indexSources(List<File> sources) {
+        List<SourceInfo> results = new ArrayList<>(sources.size());
+        if (sources.isEmpty()) {
+            return results;
+        }
+        int threads = Math.min(sources.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<SourceInfo>> futures = new ArrayList<>(sources.size());
+            for (final File f : sources) {
+                futures.add(pool.submit(new Callable<SourceInfo>() {
+                    @Override
+                    public SourceInfo call() {
+                        return indexSource(f);
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException ex) {
+                    SourceInfo failed = new SourceInfo(sources.get(i));
+                    failed.setErrorMessage(ex.getCause().getLocalizedMessage());
+                    results.add(failed);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+        return results;
+    }
+
+    @Override
+    public SourceInfo getCachedInfo(File file) {
+        SourceInfo info = CACHE.get(file.getAbsolutePath());
+        if (info != null && info.isCurrentFor(file)) {
+            return info;
+        }
+        return null;
+    }
+
+    /**
+     * Does the actual pre-flight read of a source. Unreadable files and files
+     * without a PDF header are rejected before PDFBox is involved; otherwise
+     * only the xref, trailer and page tree root are parsed, as PDFBox loads
+     * everything else lazily.
+     *
+     * @param file Populated Java File reference of source document
+     * @return populated SourceInfo DTO
+     */
+    private SourceInfo readSource(File file) {
+        SourceInfo info = new SourceInfo(file);
+        if (!file.isFile() || !file.canRead()) {
+            info.setErrorMessage("File cannot be read");
+            return info;
+        }
+        if (info.getByteSize() == 0) {
+            info.setErrorMessage("File is empty");
+            return info;
+        }
+        if (!detector.checkFileIsPDF(file)) {
+            // conversion will be needed; we cannot know the page count until then
+            info.setValid(true);
+            info.setEstimatedCost(info.getByteSize() * CONVERSION_COST_FACTOR);
+            return info;
+        }
+        info.setPdf(true);
+        try {
+            String version = readHeaderVersion(file, info);
+            if (version == null) {
+                info.setErrorMessage("No PDF header found; the file is not a PDF or is corrupt");
+                return info;
+            }
+            info.setPdfVersion(version);
+            try (PDDocument doc = Loader.loadPDF(file)) {
+                info.setEncrypted(doc.isEncrypted());
+                info.setPageCount(doc.getNumberOfPages());
+                // the catalog may override the header version:
+                info.setPdfVersion(String.valueOf(doc.getVersion()));
+            }
+            info.setValid(true);
+        } catch (InvalidPasswordException ex) {
+            info.setEncrypted(true);
+            info.setErrorMessage("PDF is password protected");
+        } catch (IOException ex) {
+            info.setErrorMessage(ex.getLocalizedMessage());
+        }
+        int pages = Math.max(info.getPageCount(), 0);
+        info.setEstimatedCost(info.getByteSize() + pages * PAGE_COST);
+        return info;
+    }
+
+    /**
+     * Reads the first few bytes of the file looking for the "%PDF-x.y" marker,
+     * and checks that there is an end-of-file marker near the end. Many
+     * writers put other data after the marker, and PDFBox can usually read a
+     * file without one, so a missing marker is only a warning.
+     *
+     * @param file Populated Java File reference of source document
+     * @param info SourceInfo DTO to record a missing end-of-file marker in
+     * @return version string, eg "1.7", or null if no header is present
+     * @throws IOException on read failure
+     */
+    private String readHeaderVersion(File file, SourceInfo info) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            byte[] head = new byte[(int) Math.min(HEADER_SCAN_BYTES, raf.length())];
+            raf.readFully(head);
+            String header = new String(head, StandardCharsets.ISO_8859_1);
+            int idx = header.indexOf("%PDF-");
+            if (idx < 0 || idx + 8 > header.length()) {
+                return null;
+            }
+            int tailLength = (int) Math.min(TRAILER_SCAN_BYTES, raf.length());
+            byte[] tail = new byte[tailLength];
+            raf.seek(raf.length() - tailLength);
+            raf.readFully(tail);
+            if (!new String(tail, StandardCharsets.ISO_8859_1).contains("%%EOF")) {
+                info.setWarning("may be truncated");
+                LOGGER.log(Level.WARNING, "No end-of-file marker found near the end of {0}; it may be truncated", file.getName());
+            }
+            return header.substring(idx + 5, idx + 8);
+        }
+    }
+}
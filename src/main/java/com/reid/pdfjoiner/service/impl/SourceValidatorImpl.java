@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import com.reid.pdfjoiner.PDFJoiner;
+import com.reid.pdfjoiner.primitive.SourceValidation;
+import com.reid.pdfjoiner.service.SourceValidator;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.pdfparser.PDFParser;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+
+/**
+ * Validates sources by parsing them strictly, which fails on a broken xref
+ * table or trailer, and then reading every page's resources and content
+ * streams, which is where most other damage shows up during a merge. A
+ * source that fails is parsed again leniently, which makes PDFBox rebuild the
+ * xref by scanning the file for objects, and if its pages can then be read a
+ * repaired copy is saved. Anything else is copied to the quarantine directory
+ * for inspection; the original is never moved or changed.
+ *
+ * @author pmreid
+ */
+public class SourceValidatorImpl implements SourceValidator {
+
+    private static final Logger LOGGER = Logger.getLogger(SourceValidatorImpl.class.getName());
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // longer placeholder lines would run off the page:
+    private static final int MAX_REASON_LENGTH = 90;
+
+    private final File quarantineDir;
+
+    /**
+     * @param quarantineDir directory to copy unrepairable sources into;
+     * created if necessary
+     */
+    public SourceValidatorImpl(File quarantineDir) {
+        this.quarantineDir = quarantineDir;
+    }
+
+    @Override
+    public SourceValidation validate(File pdf) {
+        SourceValidation result = new SourceValidation(pdf);
+        String strictProblem;
+        try {
+            check(pdf, false);
+            return result;
+        } catch (IOException | RuntimeException ex) {
+            strictProblem = describe(ex);
+        }
+        result.setProblem(strictProblem);
+        try {
+            result.setRepairedFile(repair(pdf));
+            result.setStatus(SourceValidation.STATUS_REPAIRED);
+            LOGGER.log(Level.INFO, "Repaired {0}: {1}", new Object[]{pdf.getName(), strictProblem});
+        } catch (IOException | RuntimeException ex) {
+            result.setStatus(SourceValidation.STATUS_QUARANTINED);
+            result.setProblem(describe(ex));
+            result.setQuarantinedFile(quarantine(pdf));
+            LOGGER.log(Level.WARNING, "Quarantined {0}: {1}", new Object[]{pdf.getName(), result.getProblem()});
+        }
+        return result;
+    }
+
+    @Override
+    public List<SourceValidation> validateAll(List<File> pdfs) {
+        List<SourceValidation> results = new ArrayList<>(pdfs.size());
+        if (pdfs.isEmpty()) {
+            return results;
+        }
+        int threads = Math.min(pdfs.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<SourceValidation>> futures = new ArrayList<>(pdfs.size());
+        try {
+            for (final File f : pdfs) {
+                futures.add(pool.submit(new Callable<SourceValidation>() {
+                    @Override
+                    public SourceValidation call() {
+                        return validate(f);
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException ex) {
+                    // eg OutOfMemoryError on a pathological file
+                    SourceValidation failed = new SourceValidation(pdfs.get(i));
+                    failed.setStatus(SourceValidation.STATUS_QUARANTINED);
+                    failed.setProblem(describe(ex.getCause()));
+                    results.add(failed);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            // interrupting a check would make a good file look damaged and quarantine it, so only unstarted ones are dropped:
+            for (Future<SourceValidation> future : futures) {
+                future.cancel(false);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return results;
+    }
+
+    @Override
+    public File createPlaceholder(File source, String reason) throws IOException {
+        File tmp = File.createTempFile("PDFJoiner_", "." + PDFJoiner.SUFFIX);
+        tmp.deleteOnExit();
+        try (PDDocument doc = new PDDocument()) {
+            PDPage page = new PDPage(PDRectangle.A4);
+            doc.addPage(page);
+            try (PDPageContentStream cs = new PDPageContentStream(doc, page)) {
+                cs.beginText();
+                cs.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 14);
+                cs.newLineAtOffset(50, 780);
+                cs.showText("This source could not be included:");
+                cs.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 11);
+                cs.newLineAtOffset(0, -24);
+                cs.showText(plainText(source.getName()));
+                cs.newLineAtOffset(0, -18);
+                cs.showText(plainText(reason));
+                cs.endText();
+            }
+            doc.save(tmp);
+        }
+        return tmp;
+    }
+
+    /**
+     * Parses the file and touches everything the merge will need from each
+     * page
+     *
+     * @param pdf Populated Java File reference of source PDF
+     * @param lenient true to let PDFBox rebuild a damaged xref
+     * @return the parsed document if lenient, so that it can be saved; null
+     * otherwise
+     * @throws IOException if the file is damaged
+     */
+    private PDDocument check(File pdf, boolean lenient) throws IOException {
+        RandomAccessReadBufferedFile source = new RandomAccessReadBufferedFile(pdf);
+        PDDocument doc;
+        try {
+            doc = new PDFParser(source).parse(lenient);
+        } catch (IOException | RuntimeException ex) {
+            // once parsed, the document owns the file and closes it:
+            IOUtils.closeQuietly(source);
+            throw ex;
+        }
+        try {
+            if (doc.getNumberOfPages() == 0) {
+                throw new IOException("PDF has no pages");
+            }
+            byte[] buffer = new byte[BUFFER_SIZE];
+            for (PDPage page : doc.getPages()) {
+                page.getResources();
+                Iterator<PDStream> streams = page.getContentStreams();
+                while (streams.hasNext()) {
+                    // decoding the whole stream finds broken compression:
+                    try (InputStream in = streams.next().createInputStream()) {
+                        while (in.read(buffer) != -1) {
+                            // just reading
+                        }
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            IOUtils.closeQuietly(doc);
+            throw ex;
+        }
+        if (lenient) {
+            return doc;
+        }
+        doc.close();
+        return null;
+    }
+
+    /**
+     * Rebuilds a damaged PDF by parsing it leniently and saving a fresh copy
+     *
+     * @param pdf Populated Java File reference of source PDF
+     * @return Populated Java File reference of temporary repaired PDF
+     * @throws IOException if even lenient parsing fails
+     */
+    private File repair(File pdf) throws IOException {
+        File tmp = File.createTempFile("PDFJoiner_", "." + PDFJoiner.SUFFIX);
+        tmp.deleteOnExit();
+        try (PDDocument doc = check(pdf, true)) {
+            doc.setAllSecurityToBeRemoved(true);
+            doc.save(tmp);
+        } catch (IOException | RuntimeException ex) {
+            tmp.delete();
+            throw ex;
+        }
+        return tmp;
+    }
+
+    /**
+     * Simple helper method to keep a copy of a bad source for later inspection
+     *
+     * @param pdf Populated Java File reference of source PDF
+     * @return the copy, or null if it could not be made
+     */
+    private File quarantine(File pdf) {
+        File copy = new File(quarantineDir, System.currentTimeMillis() + "_" + pdf.getName());
+        try {
+            Files.createDirectories(quarantineDir.toPath());
+            Files.copy(pdf.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return copy;
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Could not copy " + pdf + " to quarantine", ex);
+            return null;
+        }
+    }
+
+    private static String describe(Throwable ex) {
+        String message = ex.getLocalizedMessage();
+        return message == null ? ex.getClass().getSimpleName() : message;
+    }
+
+    /**
+     * Simple helper method to make text safe for a standard font
+     */
+    private static String plainText(String text) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            sb.append(c >= 0x20 && c < 0x7F ? c : '?');
+            if (sb.length() >= MAX_REASON_LENGTH) {
+                sb.append("...");
+                break;
+            }
+        }
+        return sb.toString();
+    }
+}
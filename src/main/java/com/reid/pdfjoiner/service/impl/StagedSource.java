@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import com.reid.pdfjoiner.primitive.PDFSource;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+
+/**
+ * A source document made ready for random access, which PDFBox needs to
+ * parse it. Files and buffers are used where they are; a stream or channel is
+ * read into memory, unless it turns out to be bigger than the memory it is
+ * allowed, in which case it is spilled to a temporary file from that point
+ * on. Nothing is copied that doesn't have to be, so a source that fits in
+ * memory never touches the disk.
+ *
+ * @author pmreid
+ */
+class StagedSource {
+
+    private static final int INITIAL_BUFFER = 64 * 1024;
+    private static final int COPY_BUFFER = 64 * 1024;
+
+    private final String name;
+    private final File file;
+    private final ByteBuffer bytes;
+    private final boolean temporary;
+    private final long heldBytes;
+
+    private StagedSource(String name, File file, ByteBuffer bytes, boolean temporary, long heldBytes) {
+        this.name = name;
+        this.file = file;
+        this.bytes = bytes;
+        this.temporary = temporary;
+        this.heldBytes = heldBytes;
+    }
+
+    /**
+     * @param file Populated Java File reference of a source on disk
+     * @return a StagedSource that reads the file in place
+     */
+    static StagedSource of(File file) {
+        return new StagedSource(file.getName(), file, null, false, 0);
+    }
+
+    /**
+     * @param name name to report the source by, eg that of the original it
+     * was copied from
+     * @param file Populated Java File reference of a source on disk
+     * @return a StagedSource that reads the file in place
+     */
+    static StagedSource of(String name, File file) {
+        return new StagedSource(name, file, null, false, 0);
+    }
+
+    /**
+     * @param file Populated Java File reference of a temporary file, eg a
+     * placeholder
+     * @return a StagedSource that reads the file in place and deletes it when
+     * discarded
+     */
+    static StagedSource temporary(File file) {
+        return new StagedSource(file.getName(), file, null, true, 0);
+    }
+
+    /**
+     * Makes a source ready for random access, reading it in if it is a stream
+     * or channel
+     *
+     * @param source populated PDFSource DTO
+     * @param memoryLimit most bytes that may be held in memory for it; 0 to
+     * spill to disk straight away
+     * @return staged source; close it once the merge is done
+     * @throws IOException on read failure
+     */
+    static StagedSource stage(PDFSource source, long memoryLimit) throws IOException {
+        if (source.getFile() != null) {
+            return of(source.getFile());
+        }
+        if (source.getBuffer() != null) {
+            // slice, so reads start at the buffer's position without disturbing it:
+            return new StagedSource(source.getName(), null, source.getBuffer().slice(), false, 0);
+        }
+        InputStream in = source.getStream() != null ? source.getStream() : Channels.newInputStream(source.getChannel());
+        if (memoryLimit <= 0) {
+            return spill(source.getName(), new byte[0], 0, in);
+        }
+        byte[] buffer = new byte[(int) Math.min(INITIAL_BUFFER, memoryLimit)];
+        int count = 0;
+        while (true) {
+            if (count == buffer.length) {
+                if (count >= memoryLimit) {
+                    return spill(source.getName(), buffer, count, in);
+                }
+                buffer = Arrays.copyOf(buffer, (int) Math.min(Math.min((long) buffer.length * 2, memoryLimit), Integer.MAX_VALUE - 8));
+            }
+            int read = in.read(buffer, count, buffer.length - count);
+            if (read == -1) {
+                return new StagedSource(source.getName(), null, ByteBuffer.wrap(buffer, 0, count).slice(), false, buffer.length);
+            }
+            count += read;
+        }
+    }
+
+    /**
+     * Writes what has been read so far to a temporary file, then the rest of
+     * the stream after it
+     */
+    private static StagedSource spill(String name, byte[] head, int count, InputStream rest) throws IOException {
+        File tmp = File.createTempFile("PDFJoiner_", extensionOf(name));
+        tmp.deleteOnExit();
+        try (OutputStream out = Files.newOutputStream(tmp.toPath())) {
+            out.write(head, 0, count);
+            byte[] buffer = new byte[COPY_BUFFER];
+            int read;
+            while ((read = rest.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException ex) {
+            tmp.delete();
+            throw ex;
+        }
+        return new StagedSource(name, tmp, null, true, 0);
+    }
+
+    /**
+     * Simple helper method to keep the extension of a source's name, which is
+     * how its type is detected
+     */
+    private static String extensionOf(String name) {
+        int dot = name == null ? -1 : name.lastIndexOf('.');
+        return dot > 0 ? name.substring(dot) : ".tmp";
+    }
+
+    /**
+     * Opens the source for PDFBox; may be called more than once
+     *
+     * @return a new reader positioned at the start
+     * @throws IOException on failure to open a file
+     */
+    RandomAccessRead open() throws IOException {
+        if (file != null) {
+            return new RandomAccessReadBufferedFile(file);
+        }
+        return new RandomAccessReadBuffer(bytes.duplicate());
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @return the file the source is read from, or null if it is in memory
+     */
+    File getFile() {
+        return file;
+    }
+
+    long length() {
+        return file != null ? file.length() : bytes.remaining();
+    }
+
+    /**
+     * @return bytes read into memory to stage the source, which does not
+     * include a buffer given by the caller
+     */
+    long getHeldBytes() {
+        return heldBytes;
+    }
+
+    /**
+     * Deletes the spill file or temporary file, if there is one
+     */
+    void discard() {
+        if (temporary) {
+            file.delete();
+        }
+    }
+}
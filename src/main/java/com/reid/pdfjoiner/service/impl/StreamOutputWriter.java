@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import com.reid.pdfjoiner.service.OutputWriter;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+/**
+ * Sends the output to a caller's stream, eg an HTTP response, instead of a
+ * file. The target file is ignored. The stream is flushed but not closed, as
+ * it belongs to the caller; and since the bytes go straight out, a failure
+ * part way through leaves the receiver with a partial document.
+ *
+ * @author pmreid
+ */
+public class StreamOutputWriter implements OutputWriter {
+
+    private final OutputStream out;
+    private final int bufferSize;
+
+    /**
+     * @param out stream to write to
+     * @param bufferSize size of the write buffer, in bytes
+     */
+    public StreamOutputWriter(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void write(File target, Content content) throws IOException {
+        // PDFBox closes the stream it saves to, which must not close the caller's:
+        OutputStream unclosable = new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+        OutputStream buffered = new BufferedOutputStream(unclosable, bufferSize);
+        content.writeTo(buffered);
+        buffered.flush();
+    }
+
+    @Override
+    public void install(File complete, File target) throws IOException {
+        Files.copy(complete.toPath(), out);
+        out.flush();
+    }
+}
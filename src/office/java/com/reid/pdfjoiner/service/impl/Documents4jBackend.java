@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.service.impl;
+
+import com.documents4j.api.DocumentType;
+import com.documents4j.api.IConverter;
+import com.documents4j.conversion.msoffice.MicrosoftPowerpointBridge;
+import com.documents4j.job.LocalConverter;
+import com.reid.pdfjoiner.service.ConverterBackend;
+import com.reid.pdfjoiner.service.PDFManager;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts Word and PowerPoint documents through the documents4j API. This
+ * API, which only works on a native MS Windows environment with a working
+ * Microsoft Office implementation, will call MS Office's background API, and
+ * do a "proper" Microsoft Office conversion from DOCX, PPTX etc into PDF.
+ * Built only by the office profile, which is active unless -Dlean is given.
+ *
+ * @author pmreid
+ */
+public class Documents4jBackend implements ConverterBackend {
+
+    // Office is already running its own rendering; this is mostly automation overhead:
+    private static final double COST_PER_MB = 1500;
+
+    // one per backend, as every converter drives the same Office instance:
+    private IConverter converter;
+
+    @Override
+    public String getName() {
+        return "Microsoft Office (documents4j)";
+    }
+
+    @Override
+    public boolean supports(int fileType) {
+        return toDocumentType(fileType) != null;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return System.getProperty("os.name").toLowerCase().contains("win");
+    }
+
+    @Override
+    public double getCostPerMegabyte() {
+        return COST_PER_MB;
+    }
+
+    @Override
+    public void convert(File input, int fileType, File output) throws IOException {
+        DocumentType docType = toDocumentType(fileType);
+        if (docType == null) {
+            throw new IOException("documents4j cannot convert " + input.getName());
+        }
+        try (InputStream in = new BufferedInputStream(new FileInputStream(input));
+                OutputStream out = new BufferedOutputStream(new FileOutputStream(output))) {
+            boolean converted = getConverter()
+                    .convert(in).as(docType)
+                    .to(out).as(DocumentType.PDF)
+                    .prioritizeWith(1000) // optional
+                    .schedule()
+                    .get();
+            if (!converted) {
+                throw new IOException("Microsoft Office could not convert " + input.getName());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while converting " + input.getName(), ex);
+        } catch (ExecutionException ex) {
+            throw new IOException("Microsoft Office could not convert " + input.getName(), ex.getCause());
+        }
+    }
+
+    /**
+     * Starts the converter the first time a conversion needs it. Its single
+     * worker hands Office one document at a time, however many conversion
+     * threads there are; the rest wait in its queue.
+     *
+     * @return the shared converter
+     */
+    private synchronized IConverter getConverter() {
+        if (converter == null) {
+            final IConverter started = LocalConverter.builder()
+                    .workerPool(1, 1, 2, TimeUnit.SECONDS)
+                    .enable(MicrosoftPowerpointBridge.class)
+                    .processTimeout(5, TimeUnit.SECONDS)
+                    .build();
+            // otherwise its worker threads and Office processes outlive the application:
+            Runtime.getRuntime().addShutdownHook(new Thread("PDFJoiner-documents4j-shutdown") {
+                @Override
+                public void run() {
+                    started.shutDown();
+                }
+            });
+            converter = started;
+        }
+        return converter;
+    }
+
+    private static DocumentType toDocumentType(int fileType) {
+        switch (fileType) {
+            case PDFManager.TYPE_PPT:
+                return DocumentType.PPT;
+            case PDFManager.TYPE_PPTX:
+                return DocumentType.PPTX;
+            case PDFManager.TYPE_DOC:
+                return DocumentType.DOC;
+            case PDFManager.TYPE_DOCX:
+                return DocumentType.DOCX;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.bench;
+
+import com.reid.pdfjoiner.primitive.FarmNodeStatus;
+import com.reid.pdfjoiner.service.PDFManager;
+import com.reid.pdfjoiner.service.impl.ConversionFarmBackend;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+
+/**
+ * Measures conversion throughput through the conversion farm backend as the
+ * number of nodes grows, against stand-in conversion servers on localhost.
+ * Each stand-in handles one document at a time, like a server driving a
+ * single Office instance, taking a fixed time per document, and answers with
+ * a one-page PDF. A last run has one node that is not listening and one that
+ * fails every conversion, to show documents being retried on the others.
+ * Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.reid.pdfjoiner.bench.ConversionFarmBenchmark \
+ *     -Dexec.args="[documents] [ms per conversion] [max nodes]"
+ * </pre>
+ *
+ * @author pmreid
+ */
+public class ConversionFarmBenchmark {
+
+    // as many conversions in flight as DocDetectorConverterImpl allows by default:
+    private static final int CLIENT_THREADS = 8;
+
+    public static void main(String[] args) throws Exception {
+        int documents = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int convertMillis = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int maxNodes = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        File dir = Files.createTempDirectory("PDFJoiner_bench").toFile();
+        List<File> inputs = new ArrayList<>();
+        Random random = new Random(1);
+        for (int i = 0; i < documents; i++) {
+            // the stand-ins don't read the content, so any bytes will do:
+            byte[] content = new byte[64 * 1024];
+            random.nextBytes(content);
+            File f = new File(dir, String.format("document-%03d.docx", i));
+            Files.write(f.toPath(), content);
+            inputs.add(f);
+        }
+        byte[] pdf = onePagePdf();
+
+        System.out.printf("%d documents, %d ms per conversion, %d client threads%n", documents, convertMillis, CLIENT_THREADS);
+        for (int nodes = 1; nodes <= maxNodes; nodes *= 2) {
+            List<HttpServer> servers = new ArrayList<>();
+            StringBuilder urls = new StringBuilder();
+            for (int i = 0; i < nodes; i++) {
+                HttpServer server = startStandIn(pdf, convertMillis, false);
+                servers.add(server);
+                urls.append(urls.length() == 0 ? "" : ",").append(url(server));
+            }
+            run(nodes + " node(s)", new ConversionFarmBackend(urls.toString()), inputs);
+            for (HttpServer server : servers) {
+                server.stop(0);
+            }
+        }
+
+        HttpServer good1 = startStandIn(pdf, convertMillis, false);
+        HttpServer good2 = startStandIn(pdf, convertMillis, false);
+        HttpServer failing = startStandIn(pdf, convertMillis, true);
+        HttpServer stopped = startStandIn(pdf, convertMillis, false);
+        String stoppedUrl = url(stopped);
+        ConversionFarmBackend backend = new ConversionFarmBackend(url(good1) + "," + url(good2) + "," + url(failing) + "," + stoppedUrl);
+        // checked while it is still up, so the client only finds out when a conversion fails:
+        backend.isAvailable();
+        stopped.stop(0);
+        run("2 good, 1 failing, 1 stopped", backend, inputs);
+        good1.stop(0);
+        good2.stop(0);
+        failing.stop(0);
+    }
+
+    private static void run(String label, final ConversionFarmBackend backend, List<File> inputs) throws Exception {
+        if (!backend.isAvailable()) {
+            throw new IOException("No stand-in node is up");
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(CLIENT_THREADS);
+        List<Future<Boolean>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (final File input : inputs) {
+            results.add(pool.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws IOException {
+                    File output = File.createTempFile("PDFJoiner_", ".pdf");
+                    try {
+                        backend.convert(input, PDFManager.TYPE_DOCX, output);
+                        return true;
+                    } catch (IOException ex) {
+                        return false;
+                    } finally {
+                        output.delete();
+                    }
+                }
+            }));
+        }
+        int converted = 0;
+        for (Future<Boolean> result : results) {
+            converted += result.get() ? 1 : 0;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+        System.out.printf("%-30s %3d/%d converted, %6.1f documents/s%n", label, converted, inputs.size(), converted / seconds);
+        for (FarmNodeStatus node : backend.getNodeStatus()) {
+            System.out.printf("    %-26s %-4s %4d done %4d failed %5d ms average%n", node.getUrl(),
+                    node.isHealthy() ? "up" : "down", node.getCompleted(), node.getFailed(), node.getAverageMillis());
+        }
+    }
+
+    /**
+     * Starts a conversion server stand-in on localhost: a GET is a health
+     * check, and a POST is a conversion that takes the given time
+     *
+     * @param failing true for a node that answers every conversion with an
+     * error
+     */
+    private static HttpServer startStandIn(final byte[] pdf, final int convertMillis, final boolean failing) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 50);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try (InputStream in = exchange.getRequestBody()) {
+                    byte[] buffer = new byte[8192];
+                    while (in.read(buffer) != -1) {
+                        // the stand-in doesn't look at the document
+                    }
+                }
+                if ("GET".equals(exchange.getRequestMethod())) {
+                    respond(exchange, 200, "{\"operational\":true}".getBytes("US-ASCII"));
+                    return;
+                }
+                try {
+                    Thread.sleep(convertMillis);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                if (failing) {
+                    respond(exchange, 500, new byte[0]);
+                } else {
+                    respond(exchange, 200, pdf);
+                }
+            }
+        });
+        // one conversion at a time, as with a single Office instance:
+        server.setExecutor(Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "stand-in");
+                t.setDaemon(true);
+                return t;
+            }
+        }));
+        server.start();
+        return server;
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String url(HttpServer server) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    private static byte[] onePagePdf() throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            doc.addPage(new PDPage());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            doc.save(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.bench;
+
+import com.reid.pdfjoiner.primitive.MergeOptions;
+import com.reid.pdfjoiner.primitive.MergeReport;
+import com.reid.pdfjoiner.service.impl.ImageOptimiserImpl;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceGray;
+import org.apache.pdfbox.pdmodel.graphics.color.PDIndexed;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+/**
+ * Checks that downsampling keeps the colours of a palette (Indexed) image.
+ * Such an image has one component per pixel, like a grayscale one, but the
+ * component is an index into a table of RGB colours. Builds a page with a
+ * high-resolution palette image, red shades on the left and blue on the
+ * right, scattered at random so that it doesn't compress to nothing,
+ * downsamples it, and checks that the result was re-encoded in colour. Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.reid.pdfjoiner.bench.IndexedImageCheck
+ * </pre>
+ * The process exits with 1 if the check fails.
+ *
+ * @author pmreid
+ */
+public class IndexedImageCheck {
+
+    private static final int IMAGE_SIZE = 1200;
+    private static final int SHADES = 128;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        String failure = check();
+        if (failure != null) {
+            System.err.println("FAILED: " + failure);
+            System.exit(1);
+        }
+        System.out.println("Indexed image kept its colours");
+    }
+
+    /**
+     * @return a description of what went wrong, or null if the check passed
+     */
+    private static String check() throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDPage page = new PDPage(PDRectangle.A4);
+            doc.addPage(page);
+            PDImageXObject image = new PDImageXObject(doc, new ByteArrayInputStream(palettePixels()),
+                    COSName.FLATE_DECODE, IMAGE_SIZE, IMAGE_SIZE, 8, palette());
+            try (PDPageContentStream content = new PDPageContentStream(doc, page)) {
+                content.drawImage(image, 0, 0, PDRectangle.A4.getWidth(), PDRectangle.A4.getWidth());
+            }
+            MergeOptions options = new MergeOptions();
+            // resolution is measured against the page, so this is about 100 dpi:
+            options.setImageTargetDpi(50);
+            MergeReport report = new MergeReport();
+            new ImageOptimiserImpl().optimise(doc, options, report);
+            if (report.getImagesOptimised() != 1) {
+                return "the image was not downsampled";
+            }
+            PDImageXObject result = null;
+            for (COSName name : page.getResources().getXObjectNames()) {
+                PDXObject xobject = page.getResources().getXObject(name);
+                if (xobject instanceof PDImageXObject) {
+                    result = (PDImageXObject) xobject;
+                }
+            }
+            if (result == null || result.getWidth() >= IMAGE_SIZE) {
+                return "the downsampled image is not on the page";
+            }
+            if (result.getColorSpace() instanceof PDDeviceGray) {
+                return "the image was re-encoded as DeviceGray";
+            }
+            BufferedImage decoded = result.getImage();
+            int left = decoded.getRGB(decoded.getWidth() / 4, decoded.getHeight() / 2);
+            int right = decoded.getRGB(decoded.getWidth() * 3 / 4, decoded.getHeight() / 2);
+            if (!isNear(left, 0xff0000) || !isNear(right, 0x0000ff)) {
+                return String.format("expected red and blue halves, got #%06x and #%06x", left & 0xffffff, right & 0xffffff);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @return the deflated palette indices of an image whose left half uses
+     * the red entries and right half the blue ones
+     */
+    private static byte[] palettePixels() throws IOException {
+        Random random = new Random(42);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new DeflaterOutputStream(bytes)) {
+            byte[] row = new byte[IMAGE_SIZE];
+            for (int y = 0; y < IMAGE_SIZE; y++) {
+                for (int x = 0; x < IMAGE_SIZE; x++) {
+                    row[x] = (byte) ((x < IMAGE_SIZE / 2 ? 0 : SHADES) + random.nextInt(SHADES));
+                }
+                out.write(row);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return a palette of SHADES reds followed by SHADES blues, all close to
+     * pure red and blue
+     */
+    private static PDIndexed palette() throws IOException {
+        byte[] table = new byte[SHADES * 2 * 3];
+        for (int i = 0; i < SHADES; i++) {
+            table[i * 3] = (byte) (255 - i / 8);
+            table[(SHADES + i) * 3 + 2] = (byte) (255 - i / 8);
+        }
+        COSArray array = new COSArray();
+        array.add(COSName.INDEXED);
+        array.add(COSName.DEVICERGB);
+        array.add(COSInteger.get(SHADES * 2 - 1));
+        array.add(new COSString(table));
+        return new PDIndexed(array);
+    }
+
+    private static boolean isNear(int rgb, int expected) {
+        for (int shift = 0; shift <= 16; shift += 8) {
+            if (Math.abs(((rgb >> shift) & 0xff) - ((expected >> shift) & 0xff)) > 32) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
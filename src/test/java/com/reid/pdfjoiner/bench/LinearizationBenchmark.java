@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.bench;
+
+import com.reid.pdfjoiner.primitive.MergeOptions;
+import com.reid.pdfjoiner.service.PDFManager;
+import com.reid.pdfjoiner.service.impl.PDFManagerImpl;
+import com.reid.pdfjoiner.service.impl.QpdfLinearizer;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Measures the extra cost of writing linearized output compared with a plain
+ * merge of the same sources. Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.reid.pdfjoiner.bench.LinearizationBenchmark \
+ *     -Dexec.args="[files] [pages per file] [runs]"
+ * </pre>
+ *
+ * @author pmreid
+ */
+public class LinearizationBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int files = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int pages = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        System.setProperty("java.awt.headless", "true");
+        // every run merges the same job, so the job cache would answer all but the first:
+        System.setProperty("pdfjoiner.cache.maxmb", "0");
+        if (!new QpdfLinearizer().isAvailable()) {
+            System.err.println("qpdf is not available; install it or set -Dpdfjoiner.qpdf=/path/to/qpdf");
+            System.exit(1);
+        }
+        File dir = Files.createTempDirectory("PDFJoiner_bench").toFile();
+        List<File> sources = new SyntheticCorpus(42, 256).generate(dir, files, pages);
+        PDFManager manager = new PDFManagerImpl();
+        MergeOptions plain = new MergeOptions();
+        MergeOptions linearized = new MergeOptions();
+        linearized.setLinearize(true);
+
+        // one untimed run of each to warm up the JIT:
+        time(manager, new File(dir, "warmup.pdf"), sources, plain);
+        time(manager, new File(dir, "warmup.pdf"), sources, linearized);
+        long plainTotal = 0;
+        long linearTotal = 0;
+        File plainOut = new File(dir, "plain.pdf");
+        File linearOut = new File(dir, "linearized.pdf");
+        for (int i = 0; i < runs; i++) {
+            plainTotal += time(manager, plainOut, sources, plain);
+            linearTotal += time(manager, linearOut, sources, linearized);
+        }
+        System.out.printf("%d files x %d pages, %d runs%n", files, pages, runs);
+        System.out.printf("plain:      %8.1f ms  %,d bytes%n", plainTotal / (runs * 1e6), plainOut.length());
+        System.out.printf("linearized: %8.1f ms  %,d bytes%n", linearTotal / (runs * 1e6), linearOut.length());
+        System.out.printf("overhead:   %8.1f%%%n", 100.0 * (linearTotal - plainTotal) / plainTotal);
+    }
+
+    private static long time(PDFManager manager, File dest, List<File> sources, MergeOptions options) {
+        long start = System.nanoTime();
+        if (!manager.joinPDFs(dest, sources, options)) {
+            throw new IllegalStateException("Merge failed");
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.bench;
+
+import com.reid.pdfjoiner.primitive.MergeOptions;
+import com.reid.pdfjoiner.service.OutputWriter;
+import com.reid.pdfjoiner.service.impl.AtomicFileWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.List;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.multipdf.PDFMergerUtility;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+/**
+ * Compares the throughput of saving a merged document straight to its
+ * destination, as PDFBox does by default, with the atomic writer at several
+ * buffer sizes and durability settings. Point the output directory at the
+ * storage of interest, eg a network share. Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.reid.pdfjoiner.bench.OutputWriterBenchmark \
+ *     -Dexec.args="[files] [pages per file] [runs] [output directory]"
+ * </pre>
+ *
+ * @author pmreid
+ */
+public class OutputWriterBenchmark {
+
+    private static final int[] BUFFER_SIZES = {64 * 1024, 1024 * 1024, 8 * 1024 * 1024};
+    private static final int[] DURABILITIES = {MergeOptions.DURABILITY_NONE, MergeOptions.DURABILITY_DATA, MergeOptions.DURABILITY_FULL};
+    private static final String[] DURABILITY_NAMES = {"none", "data", "full"};
+
+    public static void main(String[] args) throws Exception {
+        int files = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int pages = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        File dir = Files.createTempDirectory("PDFJoiner_bench").toFile();
+        File outDir = args.length > 3 ? new File(args[3]) : dir;
+        List<File> sources = new SyntheticCorpus(42, 256).generate(dir, files, pages);
+
+        final PDDocument merged = new PDDocument();
+        PDFMergerUtility pmu = new PDFMergerUtility();
+        for (File f : sources) {
+            // the sources must stay open until the merged document is saved
+            pmu.appendDocument(merged, Loader.loadPDF(f));
+        }
+        File target = new File(outDir, "bench-output.pdf");
+
+        // one untimed save to warm up the JIT and find the size:
+        merged.save(target);
+        double megabytes = target.length() / (1024.0 * 1024.0);
+        System.out.printf("%d files x %d pages, %.1f MB output, %d runs%n", files, pages, megabytes, runs);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            merged.save(target);
+        }
+        report("direct PDDocument.save(File)", megabytes * runs, System.nanoTime() - start);
+
+        for (int b = 0; b < BUFFER_SIZES.length; b++) {
+            for (int d = 0; d < DURABILITIES.length; d++) {
+                OutputWriter writer = new AtomicFileWriter(BUFFER_SIZES[b], DURABILITIES[d]);
+                start = System.nanoTime();
+                for (int i = 0; i < runs; i++) {
+                    writer.write(target, new OutputWriter.Content() {
+                        @Override
+                        public void writeTo(OutputStream out) throws IOException {
+                            merged.save(out);
+                        }
+                    });
+                }
+                report(String.format("atomic, %4d KB buffer, %s", BUFFER_SIZES[b] / 1024, DURABILITY_NAMES[d]),
+                        megabytes * runs, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static void report(String name, double megabytes, long nanos) {
+        System.out.printf("%-36s %8.1f MB/s%n", name, megabytes / (nanos / 1e9));
+    }
+}
@@ -0,0 +1,396 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.bench;
+
+import com.reid.pdfjoiner.service.PDFManager;
+import com.reid.pdfjoiner.service.impl.DocDetectorConverterImpl;
+import com.reid.pdfjoiner.service.impl.PDFManagerImpl;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.UnixOperatingSystemMXBean;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Runs thousands of merge jobs back to back against a synthetic corpus,
+ * sampling the resources that leak in production: live heap after GC, GC
+ * pauses, thread count, open file descriptors and the size of the temp
+ * directory. Once the warm-up is over, each resource's samples are fitted to
+ * a straight line; the run fails if any of them grows by more than its
+ * tolerance over the measured period, if any job fails, or if throughput
+ * falls below the baseline. Samples are written to soak.csv in the work
+ * directory. Run with:
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-Xmx512m -Djava.awt.headless=true -classpath %classpath \
+ *     com.reid.pdfjoiner.bench.SoakHarness [jobs] [threads] [files per job] [baseline jobs/s]"
+ * </pre>
+ * It runs in its own JVM, rather than under exec:java, so that Maven's own
+ * threads and files don't show up in the samples. The process exits with 1 if
+ * the run fails.
+ *
+ * @author pmreid
+ */
+public class SoakHarness {
+
+    private static final int CORPUS_FILES = 40;
+    private static final int PAGES_PER_FILE = 3;
+    // converted by the join itself, so its conversion temps are covered by the temp directory check:
+    private static final int CORPUS_DOCUMENTS = 4;
+    private static final long SAMPLE_MILLIS = 1000;
+    // samples before this share of the run are ignored, while the JIT and caches settle:
+    private static final double WARM_UP_FRACTION = 0.2;
+    // growth allowed across the measured period before a resource counts as leaking; the
+    // thread and file counts also get slack for whatever the jobs in flight hold open:
+    private static final long HEAP_TOLERANCE_BYTES = 16L * 1024 * 1024;
+    private static final long THREAD_TOLERANCE = 2;
+    private static final long FD_TOLERANCE = 8;
+    private static final long TEMP_TOLERANCE_BYTES = 4L * 1024 * 1024;
+    private static final long TEMP_FILE_TOLERANCE = 8;
+    // the last quarter of the run must keep up at least this share of the first measured quarter:
+    private static final double THROUGHPUT_DECAY_LIMIT = 0.8;
+    private static final double BASELINE_TOLERANCE = 0.9;
+
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicLong maxPauseMillis = new AtomicLong();
+    private final List<Sample> samples = Collections.synchronizedList(new ArrayList<Sample>());
+    private File workDir;
+
+    public static void main(String[] args) throws Exception {
+        int jobs = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int filesPerJob = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        double baseline = args.length > 3 ? Double.parseDouble(args[3]) : 0;
+        System.setProperty("java.awt.headless", "true");
+        // every job would otherwise be answered, or stored, by the job cache:
+        if (System.getProperty("pdfjoiner.cache.maxmb") == null) {
+            System.setProperty("pdfjoiner.cache.maxmb", "0");
+        }
+        // one INFO line per merge would drown the samples:
+        Logger.getLogger("com.reid.pdfjoiner").setLevel(Level.WARNING);
+        boolean passed = new SoakHarness().run(jobs, threads, filesPerJob, baseline);
+        System.exit(passed ? 0 : 1);
+    }
+
+    private boolean run(int jobs, int threads, final int filesPerJob, double baseline) throws Exception {
+        workDir = Files.createTempDirectory("PDFJoiner_soak").toFile();
+        File corpusDir = new File(workDir, "corpus");
+        corpusDir.mkdir();
+        SyntheticCorpus generator = new SyntheticCorpus(7, 128);
+        final List<File> corpus = generator.generate(corpusDir, CORPUS_FILES, PAGES_PER_FILE);
+        if (new DocDetectorConverterImpl().canConvert(PDFManager.TYPE_ODT)) {
+            corpus.addAll(generator.generateOdt(corpusDir, CORPUS_DOCUMENTS));
+        } else {
+            System.out.println("No converter for OpenDocument text is available, so the run has no conversions");
+        }
+        listenForGcPauses();
+        System.out.printf("Soak: %d jobs, %d threads, %d files per job, work directory %s%n", jobs, threads, filesPerJob, workDir);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        final long start = System.nanoTime();
+        for (int i = 0; i < jobs; i++) {
+            final int job = i;
+            pool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    runJob(job, corpus, filesPerJob);
+                }
+            });
+        }
+        pool.shutdown();
+        while (!pool.awaitTermination(SAMPLE_MILLIS, TimeUnit.MILLISECONDS)) {
+            samples.add(sample(start));
+        }
+        // not added to the samples, as the pool was draining for part of it:
+        Sample end = sample(start);
+        writeCsv(new File(workDir, "soak.csv"));
+        return evaluate(end, baseline, threads, filesPerJob);
+    }
+
+    /**
+     * One job: a random selection of the corpus in random order, so that no
+     * two jobs are alike, merged to a per-thread destination that is
+     * overwritten each time
+     */
+    private void runJob(int job, List<File> corpus, int filesPerJob) {
+        Random random = new Random(job);
+        List<File> sources = new ArrayList<>(corpus);
+        Collections.shuffle(sources, random);
+        sources = sources.subList(0, Math.min(filesPerJob, sources.size()));
+        File dest = new File(workDir, "out-" + Thread.currentThread().getId() + ".pdf");
+        PDFManager manager = new PDFManagerImpl();
+        try {
+            if (manager.joinPDFs(dest, sources)) {
+                completed.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
+        } catch (RuntimeException ex) {
+            failed.incrementAndGet();
+            ex.printStackTrace();
+        }
+    }
+
+    private Sample sample(long start) {
+        Sample s = new Sample();
+        s.seconds = (System.nanoTime() - start) / 1e9;
+        s.jobs = completed.get();
+        s.liveHeap = liveHeapAfterGc();
+        s.gcMillis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            s.gcMillis += Math.max(0, gc.getCollectionTime());
+        }
+        s.maxPauseMillis = maxPauseMillis.getAndSet(0);
+        s.threads = ManagementFactory.getThreadMXBean().getThreadCount();
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        s.openFiles = os instanceof UnixOperatingSystemMXBean ? ((UnixOperatingSystemMXBean) os).getOpenFileDescriptorCount() : -1;
+        long[] temp = measureTemp();
+        s.tempFiles = temp[0];
+        s.tempBytes = temp[1];
+        System.out.printf("%7.1fs %6d jobs  heap %6.1f MB  threads %3d  fds %4d  temp %5d files %8.1f MB  max pause %4d ms%n",
+                s.seconds, s.jobs, s.liveHeap / 1048576.0, s.threads, s.openFiles, s.tempFiles, s.tempBytes / 1048576.0, s.maxPauseMillis);
+        return s;
+    }
+
+    /**
+     * Simple helper method to measure the heap still in use after the last
+     * collection, which unlike the current usage doesn't saw up and down with
+     * allocation
+     */
+    private static long liveHeapAfterGc() {
+        long live = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null) {
+                live += pool.getCollectionUsage().getUsed();
+            }
+        }
+        return live > 0 ? live : ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Counts the temporary files left by the application: the PDFJoiner_ and
+     * PDFBox scratch files in the temp directory, and the hidden part-written
+     * outputs next to the destinations
+     *
+     * @return number of files and their total size in bytes
+     */
+    private long[] measureTemp() {
+        long[] totals = new long[2];
+        File[] entries = new File(System.getProperty("java.io.tmpdir")).listFiles();
+        if (entries != null) {
+            for (File f : entries) {
+                if (!f.equals(workDir) && (f.getName().startsWith("PDFJoiner") || f.getName().startsWith("PDFBox"))) {
+                    addSizes(f, totals);
+                }
+            }
+        }
+        entries = workDir.listFiles();
+        if (entries != null) {
+            for (File f : entries) {
+                if (f.getName().startsWith(".")) {
+                    addSizes(f, totals);
+                }
+            }
+        }
+        return totals;
+    }
+
+    private static void addSizes(File f, long[] totals) {
+        File[] children = f.listFiles();
+        if (children == null) {
+            totals[0]++;
+            totals[1] += f.length();
+            return;
+        }
+        for (File child : children) {
+            addSizes(child, totals);
+        }
+    }
+
+    private void listenForGcPauses() {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(gc instanceof NotificationEmitter)) {
+                continue;
+            }
+            ((NotificationEmitter) gc).addNotificationListener(new NotificationListener() {
+                @Override
+                public void handleNotification(Notification notification, Object handback) {
+                    if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                        return;
+                    }
+                    long pause = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData()).getGcInfo().getDuration();
+                    long previous;
+                    do {
+                        previous = maxPauseMillis.get();
+                    } while (pause > previous && !maxPauseMillis.compareAndSet(previous, pause));
+                }
+            }, null, null);
+        }
+    }
+
+    /**
+     * Applies the regression gates to the samples taken after the warm-up
+     *
+     * @param end sample taken once every job had finished
+     * @param baseline minimum acceptable jobs per second, or 0 for none
+     * @param threads number of jobs run at once
+     * @param filesPerJob number of sources in each job
+     * @return true if the run passed
+     */
+    private boolean evaluate(Sample end, double baseline, int threads, int filesPerJob) {
+        List<Sample> measured = new ArrayList<>(samples.subList((int) (samples.size() * WARM_UP_FRACTION), samples.size()));
+        boolean passed = true;
+        if (failed.get() > 0) {
+            System.out.printf("FAIL: %d jobs failed%n", failed.get());
+            passed = false;
+        }
+        if (measured.size() < 4) {
+            System.out.println("FAIL: too few samples to judge trends; run more jobs");
+            return false;
+        }
+        passed &= checkTrend(measured, "live heap", HEAP_TOLERANCE_BYTES, new Metric() {
+            @Override
+            public double of(Sample s) {
+                return s.liveHeap;
+            }
+        });
+        passed &= checkTrend(measured, "threads", THREAD_TOLERANCE + threads, new Metric() {
+            @Override
+            public double of(Sample s) {
+                return s.threads;
+            }
+        });
+        if (measured.get(0).openFiles >= 0) {
+            passed &= checkTrend(measured, "open files", FD_TOLERANCE + threads * (filesPerJob + 1), new Metric() {
+                @Override
+                public double of(Sample s) {
+                    return s.openFiles;
+                }
+            });
+        }
+        passed &= checkTrend(measured, "temp files", TEMP_FILE_TOLERANCE, new Metric() {
+            @Override
+            public double of(Sample s) {
+                return s.tempFiles;
+            }
+        });
+        passed &= checkTrend(measured, "temp bytes", TEMP_TOLERANCE_BYTES, new Metric() {
+            @Override
+            public double of(Sample s) {
+                return s.tempBytes;
+            }
+        });
+
+        double throughput = rate(measured.get(0), end);
+        int quarter = Math.max(1, measured.size() / 4);
+        double early = rate(measured.get(0), measured.get(quarter));
+        double late = rate(measured.get(measured.size() - 1 - quarter), measured.get(measured.size() - 1));
+        System.out.printf("Throughput %.2f jobs/s (first quarter %.2f, last quarter %.2f)%n", throughput, early, late);
+        if (late < early * THROUGHPUT_DECAY_LIMIT) {
+            System.out.println("FAIL: throughput decayed during the run");
+            passed = false;
+        }
+        if (baseline > 0 && throughput < baseline * BASELINE_TOLERANCE) {
+            System.out.printf("FAIL: throughput below the baseline of %.2f jobs/s%n", baseline);
+            passed = false;
+        }
+        System.out.println(passed ? "PASS" : "FAIL");
+        return passed;
+    }
+
+    /**
+     * Fits a least-squares line to the metric over time and fails it if the
+     * growth the line predicts across the measured period is over the
+     * tolerance
+     */
+    private static boolean checkTrend(List<Sample> measured, String name, double tolerance, Metric metric) {
+        int n = measured.size();
+        double meanT = 0;
+        double meanY = 0;
+        for (Sample s : measured) {
+            meanT += s.seconds / n;
+            meanY += metric.of(s) / n;
+        }
+        double covariance = 0;
+        double variance = 0;
+        for (Sample s : measured) {
+            covariance += (s.seconds - meanT) * (metric.of(s) - meanY);
+            variance += (s.seconds - meanT) * (s.seconds - meanT);
+        }
+        double slope = variance == 0 ? 0 : covariance / variance;
+        double growth = slope * (measured.get(n - 1).seconds - measured.get(0).seconds);
+        boolean ok = growth <= tolerance;
+        System.out.printf("%s %-10s grew %.1f over the run (tolerance %.1f)%n", ok ? "ok  " : "FAIL:", name, growth, tolerance);
+        return ok;
+    }
+
+    private static double rate(Sample from, Sample to) {
+        return (to.jobs - from.jobs) / Math.max(to.seconds - from.seconds, 1e-9);
+    }
+
+    private void writeCsv(File csv) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv.toPath(), StandardCharsets.UTF_8))) {
+            out.println("seconds,jobs,live_heap_bytes,gc_millis,max_pause_millis,threads,open_files,temp_files,temp_bytes");
+            for (Sample s : samples) {
+                out.printf("%.1f,%d,%d,%d,%d,%d,%d,%d,%d%n", s.seconds, s.jobs, s.liveHeap, s.gcMillis,
+                        s.maxPauseMillis, s.threads, s.openFiles, s.tempFiles, s.tempBytes);
+            }
+        }
+        System.out.println("Samples written to " + csv);
+    }
+
+    private interface Metric {
+
+        double of(Sample s);
+    }
+
+    private static class Sample {
+
+        private double seconds;
+        private int jobs;
+        private long liveHeap;
+        private long gcMillis;
+        private long maxPauseMillis;
+        private int threads;
+        private long openFiles;
+        private long tempFiles;
+        private long tempBytes;
+    }
+}
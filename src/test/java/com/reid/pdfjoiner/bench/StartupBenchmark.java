@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures cold start of a simple PDF merge by launching the fat jar in
+ * --cds-training mode in fresh JVMs: without class-data sharing, with the
+ * JDK's default archive, and with the application archive built by the
+ * appcds profile. Also checks that no Office conversion classes are loaded
+ * for a PDF-only job. Run after mvn -Pappcds package with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.reid.pdfjoiner.bench.StartupBenchmark \
+ *     -Dexec.args="[jar] [archive] [runs]"
+ * </pre>
+ *
+ * @author pmreid
+ */
+public class StartupBenchmark {
+
+    private static final String[] OFFICE_PACKAGES = {"com.documents4j.", "org.apache.poi."};
+
+    public static void main(String[] args) throws Exception {
+        File jar = new File(args.length > 0 ? args[0] : "target/PDFJoiner.jar");
+        File archive = new File(args.length > 1 ? args[1] : "target/PDFJoiner.jsa");
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        if (!jar.isFile()) {
+            System.err.println("Build the fat jar first: mvn -Pappcds package");
+            System.exit(1);
+        }
+
+        int classes = 0;
+        int office = 0;
+        for (String line : launch(jar, "-verbose:class")) {
+            // "[Loaded x" on Java 8, "[class,load] x" from Java 9:
+            if (!line.startsWith("[Loaded ") && !line.contains("class,load")) {
+                continue;
+            }
+            classes++;
+            for (String prefix : OFFICE_PACKAGES) {
+                if (line.contains(prefix)) {
+                    office++;
+                }
+            }
+        }
+        System.out.printf("%d classes loaded, %d of them Office conversion classes%n", classes, office);
+
+        time("no class-data sharing", jar, runs, "-Xshare:off");
+        time("JDK default archive", jar, runs);
+        if (archive.isFile()) {
+            time("application archive", jar, runs, "-XX:SharedArchiveFile=" + archive.getPath());
+        } else {
+            System.out.println("No application archive at " + archive + "; build with mvn -Pappcds package");
+        }
+    }
+
+    private static void time(String name, File jar, int runs, String... jvmArgs) throws IOException, InterruptedException {
+        // one untimed launch to warm the file system cache:
+        launch(jar, jvmArgs);
+        long total = 0;
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            launch(jar, jvmArgs);
+            long elapsed = System.nanoTime() - start;
+            total += elapsed;
+            best = Math.min(best, elapsed);
+        }
+        System.out.printf("%-24s mean %7.1f ms  best %7.1f ms%n", name, total / (runs * 1e6), best / 1e6);
+    }
+
+    /**
+     * Runs the training merge in a fresh JVM and waits for it to exit
+     *
+     * @return the lines it wrote to standard output and error
+     */
+    private static List<String> launch(File jar, String... jvmArgs) throws IOException, InterruptedException {
+        List<String> cmd = new ArrayList<>();
+        cmd.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        cmd.add("-Djava.awt.headless=true");
+        cmd.addAll(Arrays.asList(jvmArgs));
+        cmd.add("-jar");
+        cmd.add(jar.getPath());
+        cmd.add("--cds-training");
+        Process process = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Training run failed: " + cmd);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2026 pmreid
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.reid.pdfjoiner.bench;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+/**
+ * Generates reproducible source PDFs for the benchmarks: each page has some
+ * text and a noisy image, so files have a realistic mix of content streams and
+ * image data. It can also write small OpenDocument text files, for runs that
+ * should include conversions.
+ *
+ * @author pmreid
+ */
+public class SyntheticCorpus {
+
+    private final Random random;
+    private final int imageSize;
+
+    /**
+     * @param seed random seed, so the same corpus is generated every run
+     * @param imageSize width and height of the per-page image, in pixels; 0
+     * for text-only pages
+     */
+    public SyntheticCorpus(long seed, int imageSize) {
+        this.random = new Random(seed);
+        this.imageSize = imageSize;
+    }
+
+    /**
+     * Writes a set of source PDFs to the given directory
+     *
+     * @param dir directory to write to
+     * @param files number of files
+     * @param pagesPerFile number of pages in each file
+     * @return List of the generated files, in order
+     * @throws IOException on write failure
+     */
+    public List<File> generate(File dir, int files, int pagesPerFile) throws IOException {
+        List<File> generated = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            File f = new File(dir, String.format("source-%05d.pdf", i));
+            writeDocument(f, i, pagesPerFile);
+            generated.add(f);
+        }
+        return generated;
+    }
+
+    /**
+     * Writes a set of minimal OpenDocument text files, a few paragraphs each,
+     * to the given directory
+     *
+     * @param dir directory to write to
+     * @param files number of files
+     * @return List of the generated files, in order
+     * @throws IOException on write failure
+     */
+    public List<File> generateOdt(File dir, int files) throws IOException {
+        List<File> generated = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            File f = new File(dir, String.format("document-%05d.odt", i));
+            writeOdt(f, i);
+            generated.add(f);
+        }
+        return generated;
+    }
+
+    private void writeOdt(File f, int docNumber) throws IOException {
+        StringBuilder paragraphs = new StringBuilder();
+        for (int p = 0; p < 5; p++) {
+            paragraphs.append("<text:p>Synthetic document ").append(docNumber).append(", paragraph ").append(p + 1)
+                    .append(", value ").append(random.nextInt()).append("</text:p>");
+        }
+        String content = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<office:document-content xmlns:office=\"urn:oasis:names:tc:opendocument:xmlns:office:1.0\""
+                + " xmlns:text=\"urn:oasis:names:tc:opendocument:xmlns:text:1.0\" office:version=\"1.2\">"
+                + "<office:body><office:text>" + paragraphs + "</office:text></office:body></office:document-content>";
+        String manifest = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<manifest:manifest xmlns:manifest=\"urn:oasis:names:tc:opendocument:xmlns:manifest:1.0\" manifest:version=\"1.2\">"
+                + "<manifest:file-entry manifest:full-path=\"/\" manifest:media-type=\"application/vnd.oasis.opendocument.text\"/>"
+                + "<manifest:file-entry manifest:full-path=\"content.xml\" manifest:media-type=\"text/xml\"/>"
+                + "</manifest:manifest>";
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(f))) {
+            // the format requires the mimetype first and uncompressed:
+            byte[] mimetype = "application/vnd.oasis.opendocument.text".getBytes(StandardCharsets.US_ASCII);
+            ZipEntry entry = new ZipEntry("mimetype");
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(mimetype.length);
+            CRC32 crc = new CRC32();
+            crc.update(mimetype);
+            entry.setCrc(crc.getValue());
+            zip.putNextEntry(entry);
+            zip.write(mimetype);
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("META-INF/manifest.xml"));
+            zip.write(manifest.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("content.xml"));
+            zip.write(content.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+    }
+
+    private void writeDocument(File f, int docNumber, int pages) throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            for (int p = 0; p < pages; p++) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                doc.addPage(page);
+                try (PDPageContentStream cs = new PDPageContentStream(doc, page)) {
+                    cs.beginText();
+                    cs.setFont(font, 14);
+                    cs.newLineAtOffset(50, 780);
+                    cs.showText("Synthetic document " + docNumber + ", page " + (p + 1));
+                    cs.endText();
+                    if (imageSize > 0) {
+                        PDImageXObject image = LosslessFactory.createFromImage(doc, noise());
+                        cs.drawImage(image, 50, 200, 495, 495);
+                    }
+                }
+            }
+            doc.save(f);
+        }
+    }
+
+    private BufferedImage noise() {
+        BufferedImage img = new BufferedImage(imageSize, imageSize, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        // blocks of colour rather than per-pixel noise, so it compresses like a real scan:
+        int block = Math.max(1, imageSize / 32);
+        for (int y = 0; y < imageSize; y += block) {
+            for (int x = 0; x < imageSize; x += block) {
+                g.setColor(new Color(random.nextInt(0xFFFFFF)));
+                g.fillRect(x, y, block, block);
+            }
+        }
+        g.dispose();
+        return img;
+    }
+}